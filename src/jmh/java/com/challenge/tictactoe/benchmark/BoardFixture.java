@@ -0,0 +1,62 @@
+package com.challenge.tictactoe.benchmark;
+
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+
+/**
+ * Classic 3x3 boards at the stages every benchmark is parameterized over.
+ */
+@State(Scope.Benchmark)
+public class BoardFixture {
+
+    public enum Stage {
+        EMPTY(),
+        MID_GAME(0, 0, 1, 1, 0, 2, 0, 1),
+        WON(0, 0, 1, 0, 0, 1, 1, 1, 0, 2),
+        FULL(0, 0, 0, 1, 0, 2, 1, 1, 1, 0, 1, 2, 2, 1, 2, 0, 2, 2);
+
+        // x, y pairs, X moves first
+        private final int[] moves;
+
+        Stage(int... moves) {
+            this.moves = moves;
+        }
+    }
+
+    @Param
+    public Stage stage;
+
+    public final UUID id = UUID.randomUUID();
+
+    public int[] moves;
+    public BitBoard board;
+    public GameState state;
+    public GameResponse response;
+
+    @Setup
+    public void setUp() {
+        moves = stage.moves;
+        board = replay(moves);
+        state = new GameState(board, GameMode.TWO_PLAYER);
+        response = GameResponse.of(id, board);
+    }
+
+    public static BitBoard replay(int[] moves) {
+        final BitBoard.Builder builder = BitBoard.builder(BitBoard.DEFAULT_SIZE, BitBoard.DEFAULT_SIZE,
+                BitBoard.DEFAULT_SIZE);
+        for (int i = 0; i < moves.length; i += 2) {
+            builder.place(moves[i], moves[i + 1], i % 4 == 0 ? BitBoard.X : BitBoard.O);
+        }
+
+        return builder.build();
+    }
+}
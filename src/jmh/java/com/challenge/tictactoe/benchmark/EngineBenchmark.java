@@ -0,0 +1,53 @@
+package com.challenge.tictactoe.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameStatus;
+
+/**
+ * Board level work done on every request: building the response, finding the winner and the next symbol.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    /**
+     * Response object plus the matrix Jackson asks for, i.e. what the old buildGameResponse produced.
+     */
+    @Benchmark
+    public String[][] buildGameResponse(BoardFixture fixture) {
+        return GameResponse.of(fixture.id, fixture.board).getGameMatrix();
+    }
+
+    /**
+     * Replays the moves, checking for a completed line after each one.
+     */
+    @Benchmark
+    public String checkWinner(BoardFixture fixture) {
+        return BoardFixture.replay(fixture.moves).winner();
+    }
+
+    @Benchmark
+    public GameStatus gameStatus(BoardFixture fixture) {
+        return GameStatus.of(fixture.board);
+    }
+
+    @Benchmark
+    public String nextSymbol(BoardFixture fixture) {
+        final BitBoard board = fixture.board;
+        return board.nextSymbol();
+    }
+}
@@ -0,0 +1,75 @@
+package com.challenge.tictactoe.benchmark;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.repo.mapper.BitsCodec;
+import com.challenge.tictactoe.repo.mapper.GameStateMapper;
+import com.challenge.tictactoe.repo.mapper.IDMapper;
+
+/**
+ * Row mapping over an in-memory result set positioned on one game row, so only the mapper and the
+ * ResultSet accessors are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final GameStateMapper gameStateMapper = new GameStateMapper();
+    private final IDMapper idMapper = new IDMapper();
+
+    private SimpleResultSet row;
+
+    @Setup
+    public void setUp(BoardFixture fixture) throws SQLException {
+        final BitBoard board = fixture.board;
+
+        // GameStateMapper reads its columns by position, in GameStateMapper.COLUMNS order, with the id after them
+        row = new SimpleResultSet();
+        row.addColumn("board_rows", Types.SMALLINT, 0, 0);
+        row.addColumn("board_columns", Types.SMALLINT, 0, 0);
+        row.addColumn("win_length", Types.SMALLINT, 0, 0);
+        row.addColumn("mode", Types.VARCHAR, 16, 0);
+        row.addColumn("x_bits", Types.VARBINARY, 0, 0);
+        row.addColumn("o_bits", Types.VARBINARY, 0, 0);
+        row.addColumn("status", Types.SMALLINT, 0, 0);
+        row.addColumn("id", Types.OTHER, 0, 0);
+        row.addRow(board.getRows(), board.getColumns(), board.getWinLength(),
+                fixture.state.getMode().name(),
+                BitsCodec.toBytes(board.getXBits(), board.getCells()),
+                BitsCodec.toBytes(board.getOBits(), board.getCells()),
+                fixture.state.getStatus().getCode(),
+                fixture.id);
+        row.next();
+    }
+
+    @Benchmark
+    public GameState gameStateMapper() throws SQLException {
+        return gameStateMapper.mapRow(row, 0);
+    }
+
+    @Benchmark
+    public UUID idMapper() throws SQLException {
+        return idMapper.mapRow(row, 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.challenge.tictactoe.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.challenge.tictactoe.api.codec.GameWireFormats;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Encoding a game response in each wire format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public byte[] jackson(BoardFixture fixture) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fixture.response);
+    }
+
+    @Benchmark
+    public byte[] binary(BoardFixture fixture) {
+        return GameWireFormats.toBinary(fixture.response);
+    }
+
+    @Benchmark
+    public byte[] boardString(BoardFixture fixture) {
+        return GameWireFormats.toBoardString(fixture.response);
+    }
+}
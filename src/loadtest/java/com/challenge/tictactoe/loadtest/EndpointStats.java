@@ -0,0 +1,43 @@
+package com.challenge.tictactoe.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and error count of one endpoint, recorded concurrently by all players.
+ */
+class EndpointStats {
+
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final Recorder recorder = new Recorder(MAX_LATENCY, 3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, boolean error) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY));
+        if (error)
+            errors.increment();
+    }
+
+    /**
+     * Drops everything recorded so far, at the end of the warmup.
+     */
+    void reset() {
+        recorder.reset();
+        errors.reset();
+    }
+
+    /**
+     * Latencies recorded since the last reset.
+     */
+    Histogram snapshot() {
+        return recorder.getIntervalHistogram();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+}
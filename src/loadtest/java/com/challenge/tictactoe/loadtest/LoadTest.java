@@ -0,0 +1,174 @@
+package com.challenge.tictactoe.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.challenge.tictactoe.TictactoeApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives the game API with many simulated players at a target request rate and reports throughput and
+ * p50/p95/p99 latency per endpoint.
+ * <p>
+ * Unless {@code --target} points at a running server, the application is started in this JVM on a random
+ * port against an in-memory H2 database in PostgreSQL mode, with the schema from the Flyway migrations.
+ * Results from the warmup are discarded. The report is printed and also written as JSON, so runs of two
+ * releases, or of the servlet and the reactive stack, can be compared.
+ */
+public class LoadTest {
+
+    private static final String H2_OPTIONS = "MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;"
+            + "DB_CLOSE_DELAY=-1";
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+
+        final ConfigurableApplicationContext context = options.getTarget() == null ? start(options) : null;
+        try {
+            final URI baseUri = context == null
+                    ? URI.create(options.getTarget() + "/")
+                    : URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                            + "/");
+
+            report(options, run(options, baseUri));
+        } finally {
+            if (context != null)
+                context.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        final String jdbcUrl = "jdbc:h2:mem:loadtest;" + H2_OPTIONS;
+
+        // Command line arguments, so they take precedence over application.yml
+        return new SpringApplicationBuilder(TictactoeApplication.class)
+                .profiles(options.getProfile().isEmpty() ? new String[0] : options.getProfile().split(","))
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        // Tomcat stops before the connection pool and warns about its housekeeper thread
+                        "--logging.level.org.apache.catalina.loader=ERROR",
+                        "--spring.datasource.url=" + jdbcUrl,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        // the reactive profile migrates over JDBC and serves over R2DBC, on the same database
+                        "--spring.flyway.url=" + jdbcUrl,
+                        "--spring.flyway.user=sa",
+                        "--spring.flyway.password=",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///loadtest;" + H2_OPTIONS,
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=");
+    }
+
+    private static Map<Operation, EndpointStats> run(LoadTestOptions options, URI baseUri)
+            throws InterruptedException {
+        final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values())
+            stats.put(operation, new EndpointStats());
+
+        final List<Operation> mix = new ArrayList<>();
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++)
+                mix.add(operation);
+        });
+
+        final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final ObjectMapper objectMapper = new ObjectMapper();
+
+        // Each player sends every players/rate seconds, offset from the others to spread the load evenly
+        final long spacing = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        final long measureFrom = start + options.getWarmup().toNanos();
+        final long end = measureFrom + options.getDuration().toNanos();
+
+        final List<Thread> players = new ArrayList<>();
+        for (int i = 0; i < options.getPlayers(); i++) {
+            final Thread player = new Thread(new Player(client, baseUri, objectMapper, stats,
+                    mix.toArray(new Operation[0]), spacing * options.getPlayers(), start + spacing * i, end),
+                    "player-" + i);
+            player.setDaemon(true);
+            player.start();
+            players.add(player);
+        }
+
+        System.out.printf("Running %d players at %d requests/s against %s, %ds warmup and %ds measured%n",
+                options.getPlayers(), options.getRate(), baseUri, options.getWarmup().toSeconds(),
+                options.getDuration().toSeconds());
+
+        LockSupport.parkNanos(measureFrom - System.nanoTime());
+        stats.values().forEach(EndpointStats::reset);
+
+        for (Thread player : players)
+            player.join();
+
+        return stats;
+    }
+
+    private static void report(LoadTestOptions options, Map<Operation, EndpointStats> stats) throws IOException {
+        final double seconds = options.getDuration().toMillis() / 1000.0;
+        final Map<String, Object> endpoints = new LinkedHashMap<>();
+        final Histogram total = new Histogram(3);
+        long totalErrors = 0;
+
+        System.out.printf("%n%-18s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            final Histogram histogram = entry.getValue().snapshot();
+            if (histogram.getTotalCount() == 0)
+                continue;
+
+            final long errors = entry.getValue().getErrors();
+            endpoints.put(entry.getKey().getEndpoint(), row(entry.getKey().getEndpoint(), histogram, errors, seconds));
+            total.add(histogram);
+            totalErrors += errors;
+        }
+        endpoints.put("total", row("total", total, totalErrors, seconds));
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("profile", options.getProfile().isEmpty() ? "default" : options.getProfile());
+        result.put("players", options.getPlayers());
+        result.put("targetRate", options.getRate());
+        result.put("durationSeconds", options.getDuration().toSeconds());
+        result.put("endpoints", endpoints);
+
+        final File file = new File(options.getReport());
+        if (file.getParentFile() != null)
+            file.getParentFile().mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, result);
+        System.out.printf("%nReport written to %s%n", file);
+    }
+
+    private static Map<String, Object> row(String endpoint, Histogram histogram, long errors, double seconds) {
+        final Map<String, Object> row = new LinkedHashMap<>();
+        row.put("requests", histogram.getTotalCount());
+        row.put("errors", errors);
+        row.put("throughput", histogram.getTotalCount() / seconds);
+        row.put("p50", millis(histogram.getValueAtPercentile(50)));
+        row.put("p95", millis(histogram.getValueAtPercentile(95)));
+        row.put("p99", millis(histogram.getValueAtPercentile(99)));
+        row.put("max", millis(histogram.getMaxValue()));
+
+        System.out.printf("%-18s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint, row.get("requests"), errors,
+                row.get("throughput"), row.get("p50"), row.get("p95"), row.get("p99"), row.get("max"));
+
+        return row;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
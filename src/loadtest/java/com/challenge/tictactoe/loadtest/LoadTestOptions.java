@@ -0,0 +1,85 @@
+package com.challenge.tictactoe.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Command line options of {@link LoadTest}, given as {@code --name=value}.
+ */
+@Getter
+public class LoadTestOptions {
+
+    // Players, total requests per second and measured time
+    private int players = 50;
+    private int rate = 500;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(10);
+
+    // Relative weight of each operation, e.g. create:1,play:6,get:10,delete:1
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    // Spring profile to start, "reactive" for the WebFlux stack; blank for the servlet stack
+    private String profile = "";
+
+    // Existing server to load instead of starting one, e.g. http://localhost:8080
+    private String target;
+
+    private String report = "target/loadtest-result.json";
+
+    public static LoadTestOptions parse(String[] args) {
+        final LoadTestOptions options = new LoadTestOptions();
+        options.setMix("create:1,play:6,get:10,delete:1");
+
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0)
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+
+            final String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "players":
+                    options.players = Integer.parseInt(value);
+                    break;
+                case "rate":
+                    options.rate = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.duration = Duration.ofSeconds(Long.parseLong(value));
+                    break;
+                case "warmup":
+                    options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                    break;
+                case "mix":
+                    options.setMix(value);
+                    break;
+                case "profile":
+                    options.profile = value;
+                    break;
+                case "target":
+                    options.target = value;
+                    break;
+                case "report":
+                    options.report = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        if (options.players < 1 || options.rate < 1)
+            throw new IllegalArgumentException("players and rate must be positive");
+
+        return options;
+    }
+
+    private void setMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            final String[] weight = entry.split(":");
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.challenge.tictactoe.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * What a simulated player can do on its turn, labelled with the endpoint it hits.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Operation {
+    CREATE("POST /game"),
+    PLAY("PATCH /game/{id}"),
+    GET("GET /game/{id}"),
+    DELETE("DELETE /game/{id}");
+
+    private final String endpoint;
+}
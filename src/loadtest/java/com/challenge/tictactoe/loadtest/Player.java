@@ -0,0 +1,154 @@
+package com.challenge.tictactoe.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One simulated player, playing its own game through the API at a fixed pace. Each request has a scheduled
+ * start time and its latency is measured from then, so a slow response delays the requests queued behind it
+ * and they are charged for the wait, like they would be for real clients arriving at that rate.
+ */
+class Player implements Runnable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+    private final Map<Operation, EndpointStats> stats;
+    private final Operation[] mix;
+    private final long intervalNanos;
+    private final long firstStart;
+    private final long end;
+
+    // Current game of this player, null before the first create and after a delete
+    private String gameId;
+    private JsonNode game;
+
+    Player(HttpClient client, URI baseUri, ObjectMapper objectMapper, Map<Operation, EndpointStats> stats,
+            Operation[] mix, long intervalNanos, long firstStart, long end) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+        this.mix = mix;
+        this.intervalNanos = intervalNanos;
+        this.firstStart = firstStart;
+        this.end = end;
+    }
+
+    @Override
+    public void run() {
+        // Requests still queued behind a slow server when the time is up are not sent
+        for (long start = firstStart; start < end && System.nanoTime() < end; start += intervalNanos) {
+            final long wait = start - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+
+            final Operation operation = next();
+            boolean error;
+            try {
+                error = !perform(operation);
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            stats.get(operation).record(System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * Picks the next operation from the mix, starting a new game whenever there is none to act on.
+     */
+    private Operation next() {
+        final Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+        if (gameId == null || operation == Operation.PLAY && isOver())
+            return Operation.CREATE;
+
+        return operation;
+    }
+
+    private boolean perform(Operation operation) throws IOException, InterruptedException {
+        switch (operation) {
+            case CREATE:
+                return update(send(withMove(request(""), "POST",
+                        ThreadLocalRandom.current().nextInt(3), ThreadLocalRandom.current().nextInt(3), "X")));
+            case PLAY:
+                final int[] cell = randomEmptyCell();
+                return update(send(withMove(request("/" + gameId), "PATCH",
+                        cell[0], cell[1], game.get("nextSymbol").asText())));
+            case GET:
+                return update(send(request("/" + gameId).GET()));
+            case DELETE:
+                final HttpResponse<byte[]> response = send(request("/" + gameId).DELETE());
+                gameId = null;
+                game = null;
+                return response.statusCode() == 204;
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve("game" + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.Builder withMove(HttpRequest.Builder request, String method, int x, int y, String symbol) {
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(
+                        String.format("{\"x\":%d,\"y\":%d,\"symbol\":\"%s\"}", x, y, symbol)));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Keeps the game from a successful response; after an error the player starts over with a new game.
+     */
+    private boolean update(HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            gameId = null;
+            game = null;
+            return false;
+        }
+
+        game = objectMapper.readTree(response.body());
+        gameId = game.get("id").asText();
+        return true;
+    }
+
+    private boolean isOver() {
+        return !game.get("winner").isNull() || randomEmptyCell() == null;
+    }
+
+    private int[] randomEmptyCell() {
+        final List<int[]> empty = new ArrayList<>();
+        final JsonNode matrix = game.get("gameMatrix");
+        for (int x = 0; x < matrix.size(); x++) {
+            for (int y = 0; y < matrix.get(x).size(); y++) {
+                if (matrix.get(x).get(y).isNull())
+                    empty.add(new int[] { x, y });
+            }
+        }
+
+        return empty.isEmpty() ? null : empty.get(ThreadLocalRandom.current().nextInt(empty.size()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.challenge.tictactoe.api;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.challenge.tictactoe.api.response.DeleteResponse;
+import com.challenge.tictactoe.model.GameFilter;
+import com.challenge.tictactoe.service.GameArchiveService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bulk deletes, available only with the database store.
+ */
+@RestController
+@RequestMapping("game")
+@Profile("!reactive & !embedded")
+@RequiredArgsConstructor
+public class GameArchiveController {
+
+    private final GameArchiveService gameArchiveService;
+
+    /**
+     * Deletes every game matching the filter given as query parameters, e.g.
+     * {@code DELETE /game?status=DRAW&updatedBefore=2024-01-01T00:00:00Z}; at least one is required.
+     */
+    @DeleteMapping
+    public ResponseEntity<DeleteResponse> deleteMatching(GameFilter filter) throws InvalidAttributeValueException {
+        return ResponseEntity.ok(new DeleteResponse(gameArchiveService.deleteMatching(filter)));
+    }
+}
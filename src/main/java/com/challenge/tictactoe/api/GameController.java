@@ -1,11 +1,15 @@
 package com.challenge.tictactoe.api;
 
+import java.net.URI;
+import java.util.List;
 import java.util.UUID;
 
 import javax.management.InvalidAttributeValueException;
 import javax.naming.NameNotFoundException;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,41 +18,97 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.challenge.tictactoe.api.codec.GameWireFormats;
+import com.challenge.tictactoe.api.request.BatchItemRequest;
 import com.challenge.tictactoe.api.request.GameRequest;
+import com.challenge.tictactoe.api.response.BatchItemResponse;
 import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.api.response.GameStatsResponse;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.service.GameBatchService;
 import com.challenge.tictactoe.service.GameService;
+import com.challenge.tictactoe.service.GameStats;
 
 import lombok.RequiredArgsConstructor;
 
 @RestController
 @RequestMapping("game")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class GameController {
 
+    private static final long EVENTS_TIMEOUT_MS = 30 * 60 * 1000L;
+
     private final GameService gameService;
+    private final GameBatchService gameBatchService;
+    private final GameStats gameStats;
 
     @GetMapping
-    public ResponseEntity<UUID[]> getGames() {
-        return ResponseEntity.ok(gameService.getAll());
+    public ResponseEntity<UUID[]> getGames(@RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) throws InvalidAttributeValueException {
+        return ResponseEntity.ok(gameService.getAll(after, limit));
+    }
+
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamGames(@RequestParam(required = false) UUID after) {
+        return ResponseEntity.ok(outputStream -> gameService.streamAll(after, outputStream));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<GameStatsResponse> getStats() {
+        return ResponseEntity.ok(gameStats.getStats());
     }
 
-    @GetMapping("/{id}")
+    /**
+     * Spring answers 304 without serializing the body when the request's If-None-Match matches the ETag.
+     */
+    @GetMapping(path = "/{id}", produces = { MediaType.APPLICATION_JSON_VALUE, GameWireFormats.BINARY_VALUE,
+            GameWireFormats.BOARD_VALUE })
     public ResponseEntity<GameResponse> getGameById(@PathVariable UUID id) throws NameNotFoundException {
-        return ResponseEntity.ok(gameService.getById(id));
+        final GameResponse game = gameService.getById(id);
+        return ResponseEntity.ok().eTag(eTag(game)).varyBy(HttpHeaders.ACCEPT).body(game);
+    }
+
+    /**
+     * Pushes the game as a "game" event now and after every move, until it ends or the timeout passes.
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable UUID id) throws NameNotFoundException {
+        final SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MS);
+        final Runnable unsubscribe = gameService.subscribe(id, new SseGameListener(emitter));
+
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        return emitter;
     }
 
-    @PostMapping
+    @PostMapping(produces = { MediaType.APPLICATION_JSON_VALUE, GameWireFormats.BINARY_VALUE,
+            GameWireFormats.BOARD_VALUE })
     public ResponseEntity<GameResponse> createGame(@RequestBody GameRequest body)
             throws InvalidAttributeValueException, NameNotFoundException {
-        return new ResponseEntity<>(gameService.createGame(body), HttpStatus.CREATED);
+        final GameResponse game = gameService.createGame(body);
+        return ResponseEntity.created(location(game)).eTag(eTag(game)).varyBy(HttpHeaders.ACCEPT).body(game);
     }
 
-    @PatchMapping("/{id}")
+    @PatchMapping(path = "/{id}", produces = { MediaType.APPLICATION_JSON_VALUE, GameWireFormats.BINARY_VALUE,
+            GameWireFormats.BOARD_VALUE })
     public ResponseEntity<GameResponse> playTurn(@PathVariable UUID id, @RequestBody GameRequest body)
-            throws InvalidAttributeValueException, NameNotFoundException {
-        return ResponseEntity.ok(gameService.playTurn(id, body));
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        final GameResponse game = gameService.playTurn(id, body);
+        return ResponseEntity.ok().eTag(eTag(game)).varyBy(HttpHeaders.ACCEPT).body(game);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResponse>> playBatch(@RequestBody List<BatchItemRequest> body)
+            throws InvalidAttributeValueException {
+        return ResponseEntity.ok(gameBatchService.play(body));
     }
 
     @DeleteMapping("/{id}")
@@ -56,4 +116,16 @@ public class GameController {
         gameService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static URI location(GameResponse game) {
+        return URI.create("/game/" + game.getId());
+    }
+
+    /**
+     * Weak, as the JSON, binary and board string representations of a version share it; responses vary by
+     * Accept so caches keep them apart.
+     */
+    private static String eTag(GameResponse game) {
+        return "W/\"" + game.getVersion() + "\"";
+    }
 }
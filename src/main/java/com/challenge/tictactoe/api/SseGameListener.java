@@ -0,0 +1,37 @@
+package com.challenge.tictactoe.api;
+
+import java.io.IOException;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.challenge.tictactoe.service.GameSubscriptions;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Forwards game updates to one Server-Sent Events connection as already serialized JSON. Runs on a
+ * {@link GameSubscriptions} delivery thread, so a blocking send only holds up this connection.
+ */
+@RequiredArgsConstructor
+class SseGameListener implements GameSubscriptions.Listener {
+
+    static final String EVENT_NAME = "game";
+
+    private final SseEmitter emitter;
+
+    @Override
+    public void onUpdate(String gameJson) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(gameJson, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, the emitter callbacks unsubscribe this listener
+            emitter.completeWithError(e);
+        }
+    }
+
+    @Override
+    public void onClose() {
+        emitter.complete();
+    }
+}
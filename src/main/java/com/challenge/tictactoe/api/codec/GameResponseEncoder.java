@@ -0,0 +1,38 @@
+package com.challenge.tictactoe.api.codec;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractSingleValueEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.util.MimeType;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Writes a {@link GameResponse} in one of the {@link GameWireFormats} for the reactive stack.
+ */
+public class GameResponseEncoder extends AbstractSingleValueEncoder<GameResponse> {
+
+    private final Function<GameResponse, byte[]> encoding;
+
+    public GameResponseEncoder(MimeType mimeType, Function<GameResponse, byte[]> encoding) {
+        super(mimeType);
+        this.encoding = encoding;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return GameResponse.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    protected Flux<DataBuffer> encode(GameResponse game, DataBufferFactory bufferFactory, ResolvableType type,
+            MimeType mimeType, Map<String, Object> hints) {
+        return Flux.just(bufferFactory.wrap(encoding.apply(game)));
+    }
+}
@@ -0,0 +1,47 @@
+package com.challenge.tictactoe.api.codec;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+
+/**
+ * Writes a {@link GameResponse} in one of the {@link GameWireFormats} for the servlet stack. Write only.
+ */
+public class GameResponseHttpMessageConverter extends AbstractHttpMessageConverter<GameResponse> {
+
+    private final Function<GameResponse, byte[]> encoding;
+
+    public GameResponseHttpMessageConverter(MediaType mediaType, Function<GameResponse, byte[]> encoding) {
+        super(mediaType);
+        this.encoding = encoding;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GameResponse readInternal(Class<? extends GameResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Game responses cannot be read", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(GameResponse game, HttpOutputMessage outputMessage) throws IOException {
+        final byte[] body = encoding.apply(game);
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
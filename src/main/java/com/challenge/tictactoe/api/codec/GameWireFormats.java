@@ -0,0 +1,75 @@
+package com.challenge.tictactoe.api.codec;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.http.MediaType;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.repo.mapper.BitsCodec;
+
+/**
+ * Hand-written encodings of {@link GameResponse} offered next to JSON. Neither carries the game id, which the
+ * client already has from the URL or, after creating a game, from the Location header.
+ * <p>
+ * Binary, big-endian: status code, rows, columns and win length as one byte each, the version as a short,
+ * then the X and the O bitsets packed as in the game table. A classic board takes 10 bytes.
+ * <p>
+ * Board string: one character per cell in row order, {@code X}, {@code O} or {@code .} for empty, so a
+ * classic board reads like {@code X.O..X...}.
+ * <p>
+ * Error bodies are always JSON, so clients asking for these formats should also accept
+ * {@code application/json} at a lower quality.
+ */
+public final class GameWireFormats {
+
+    public static final String BINARY_VALUE = "application/vnd.tictactoe.game+binary";
+    public static final MediaType BINARY = MediaType.parseMediaType(BINARY_VALUE);
+
+    public static final String BOARD_VALUE = "text/vnd.tictactoe.board";
+    public static final MediaType BOARD = MediaType.parseMediaType(BOARD_VALUE);
+
+    private static final int HEADER_BYTES = 6;
+
+    private GameWireFormats() {
+    }
+
+    public static byte[] toBinary(GameResponse game) {
+        final BitBoard board = game.getBoard();
+        final byte[] xBits = BitsCodec.toBytes(board.getXBits(), board.getCells());
+        final byte[] oBits = BitsCodec.toBytes(board.getOBits(), board.getCells());
+
+        return ByteBuffer.allocate(HEADER_BYTES + xBits.length + oBits.length)
+                .put((byte) GameStatus.of(board).getCode())
+                .put((byte) board.getRows())
+                .put((byte) board.getColumns())
+                .put((byte) board.getWinLength())
+                .putShort((short) game.getVersion())
+                .put(xBits)
+                .put(oBits)
+                .array();
+    }
+
+    public static byte[] toBoardString(GameResponse game) {
+        final BitBoard board = game.getBoard();
+        final long[] xBits = board.getXBits();
+        final long[] oBits = board.getOBits();
+
+        final byte[] cells = new byte[board.getCells()];
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (isSet(xBits, cell))
+                cells[cell] = 'X';
+            else if (isSet(oBits, cell))
+                cells[cell] = 'O';
+            else
+                cells[cell] = '.';
+        }
+
+        return cells;
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.challenge.tictactoe.api.request;
+
+import java.util.UUID;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One entry of a batch: a move on game {@code id}, or a new game when the id is omitted.
+ */
+@Getter
+@Setter
+public class BatchItemRequest extends GameRequest {
+    private UUID id;
+}
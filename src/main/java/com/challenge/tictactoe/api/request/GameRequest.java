@@ -1,5 +1,7 @@
 package com.challenge.tictactoe.api.request;
 
+import com.challenge.tictactoe.model.GameMode;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,4 +11,10 @@ public class GameRequest {
     private int x;
     private int y;
     private String symbol;
+
+    // Board settings, only read when creating a game; classic 3x3 when omitted
+    private Integer rows;
+    private Integer columns;
+    private Integer winLength;
+    private GameMode mode;
 }
@@ -0,0 +1,17 @@
+package com.challenge.tictactoe.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+    private int status;
+    private GameResponse game;
+    private String errorMessage;
+}
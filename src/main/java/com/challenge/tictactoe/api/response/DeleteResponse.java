@@ -0,0 +1,10 @@
+package com.challenge.tictactoe.api.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class DeleteResponse {
+    private int deleted;
+}
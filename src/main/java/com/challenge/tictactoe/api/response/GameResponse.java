@@ -2,6 +2,9 @@ package com.challenge.tictactoe.api.response;
 
 import java.util.UUID;
 
+import com.challenge.tictactoe.engine.BitBoard;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,5 +16,31 @@ public class GameResponse {
     private UUID id;
     private String winner;
     private String nextSymbol;
-    private String[][] gameMatrix;
+
+    @JsonIgnore
+    private BitBoard board;
+
+    public static GameResponse of(UUID id, BitBoard board) {
+        final String winner = board.winner();
+
+        if (winner != null)
+            return new GameResponse(id, winner, null, board);
+        else
+            return new GameResponse(id, null, board.nextSymbol(), board);
+    }
+
+    /**
+     * Move count of the game, which doubles as its version and ETag.
+     */
+    @JsonIgnore
+    public int getVersion() {
+        return board.getMoveCount();
+    }
+
+    /**
+     * Built on demand so the matrix is only allocated when the response is serialized.
+     */
+    public String[][] getGameMatrix() {
+        return board.toMatrix();
+    }
 }
@@ -0,0 +1,29 @@
+package com.challenge.tictactoe.api.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GameStatsResponse {
+    private long created;
+    private long inProgress;
+    private long wonByX;
+    private long wonByO;
+    private long draws;
+    private long abandoned;
+    // Moves per finished game
+    private double averageMoves;
+    // Most played first moves first
+    private List<Opening> openings;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Opening {
+        private int x;
+        private int y;
+        private long games;
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import com.challenge.tictactoe.exception.GameBusyException;
+import com.challenge.tictactoe.exception.GameConflictException;
 import com.challenge.tictactoe.model.CustomError;
 
 @ControllerAdvice
@@ -27,4 +29,18 @@ public class ControllerAdviceConfig {
     public CustomError invalidAttributesException(InvalidAttributeValueException ex) {
         return new CustomError(ex.getMessage());
     }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ResponseBody
+    @ExceptionHandler(GameConflictException.class)
+    public CustomError conflictException(GameConflictException ex) {
+        return new CustomError(ex.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    @ExceptionHandler(GameBusyException.class)
+    public CustomError busyException(GameBusyException ex) {
+        return new CustomError(ex.getMessage());
+    }
 }
@@ -0,0 +1,55 @@
+package com.challenge.tictactoe.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.challenge.tictactoe.service.GameShards;
+import com.challenge.tictactoe.service.GameStateCache;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Records the @Timed service, rules and repository methods, tagged by class and method.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder gameStateCacheMetrics(GameStateCache cache) {
+        return registry -> {
+            FunctionCounter.builder("game.cache.requests", cache, GameStateCache::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("game.cache.requests", cache, GameStateCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("game.cache.evictions", cache, GameStateCache::getEvictions)
+                    .register(registry);
+            Gauge.builder("game.cache.size", cache, GameStateCache::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder gameShardsMetrics(GameShards gameShards) {
+        return registry -> {
+            for (int i = 0; i < gameShards.getShardCount(); i++) {
+                final int shard = i;
+                Gauge.builder("game.shards.queue.depth", gameShards, shards -> shards.getQueueDepth(shard))
+                        .tag("shard", String.valueOf(shard))
+                        .register(registry);
+            }
+            FunctionCounter.builder("game.shards.rejections", gameShards, GameShards::getRejections)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.challenge.tictactoe.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import com.challenge.tictactoe.api.codec.GameResponseEncoder;
+import com.challenge.tictactoe.api.codec.GameWireFormats;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    /**
+     * Tomcat is on the classpath for the servlet stack and would otherwise be picked for WebFlux as well.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        final CodecConfigurer.CustomCodecs customCodecs = configurer.customCodecs();
+        customCodecs.register(new GameResponseEncoder(GameWireFormats.BINARY, GameWireFormats::toBinary));
+        customCodecs.register(new GameResponseEncoder(GameWireFormats.BOARD, GameWireFormats::toBoardString));
+    }
+}
@@ -0,0 +1,54 @@
+package com.challenge.tictactoe.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import com.challenge.tictactoe.repo.ReplicaRouting;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the auto-configured data source with one routing between the primary and the read replicas
+ * listed in {@code tictactoe.replicas.urls}. Replicas use the primary's credentials and pool settings.
+ */
+@Configuration
+@Profile("!reactive & !embedded")
+@ConditionalOnExpression("'${tictactoe.replicas.urls:}' != ''")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+            ReplicaRouting replicaRouting, @Value("${tictactoe.replicas.urls}") String[] replicaUrls) {
+        final HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "primary");
+
+        final List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            replicas.add(pool(properties, environment, replicaUrls[i].trim(), "replica-" + i));
+        }
+
+        return new ReplicaRoutingDataSource(replicaRouting, primary, replicas);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url,
+            String name) {
+        final HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+
+        return dataSource;
+    }
+}
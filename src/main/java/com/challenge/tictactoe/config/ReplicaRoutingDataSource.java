@@ -0,0 +1,65 @@
+package com.challenge.tictactoe.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.challenge.tictactoe.repo.ReplicaRouting;
+
+/**
+ * Hands out replica connections, round robin, to reads marked by {@link ReplicaRouting} and primary
+ * connections to everything else. The choice is made when a connection is opened, so a transaction stays on
+ * the data source it started on.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final ReplicaRouting replicaRouting;
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(ReplicaRouting replicaRouting, DataSource primary, List<DataSource> replicas) {
+        this.replicaRouting = replicaRouting;
+        this.primary = primary;
+        this.replicas = replicas;
+
+        final Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * @return the index of the replica to read from, or null for the primary
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!replicaRouting.isReplicaRead())
+            return null;
+
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            close(replica);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable)
+            ((Closeable) dataSource).close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.challenge.tictactoe.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the archive sweep; with {@code tictactoe.sweeper.enabled=false} only explicit bulk deletes remove games.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "tictactoe.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,25 @@
+package com.challenge.tictactoe.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.challenge.tictactoe.api.codec.GameResponseHttpMessageConverter;
+import com.challenge.tictactoe.api.codec.GameWireFormats;
+
+@Configuration
+@Profile("!reactive")
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Appended after Jackson, so JSON stays the default when the client accepts any type.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new GameResponseHttpMessageConverter(GameWireFormats.BINARY, GameWireFormats::toBinary));
+        converters.add(new GameResponseHttpMessageConverter(GameWireFormats.BOARD, GameWireFormats::toBoardString));
+    }
+}
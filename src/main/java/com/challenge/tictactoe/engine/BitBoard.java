@@ -0,0 +1,257 @@
+package com.challenge.tictactoe.engine;
+
+import java.util.Arrays;
+
+/**
+ * Immutable m,n,k board stored as one bitset per symbol.
+ * Cell (x, y) maps to bit {@code x * columns + y}, matching {@code gameMatrix[x][y]}.
+ * The winner is detected incrementally by scanning only the four lines through each placed cell.
+ */
+public final class BitBoard {
+
+    public static final String X = "X";
+    public static final String O = "O";
+
+    public static final int DEFAULT_SIZE = 3;
+    public static final int MIN_SIZE = 3;
+    public static final int MAX_SIZE = 32;
+
+    public static final BitBoard EMPTY = empty(DEFAULT_SIZE, DEFAULT_SIZE, DEFAULT_SIZE);
+
+    // Horizontal, vertical, diagonal and anti-diagonal steps
+    private static final int[][] DIRECTIONS = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final long[] xBits;
+    private final long[] oBits;
+    private final int xCount;
+    private final int oCount;
+    private final String winner;
+
+    private BitBoard(int rows, int columns, int winLength, long[] xBits, long[] oBits,
+            int xCount, int oCount, String winner) {
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.xBits = xBits;
+        this.oBits = oBits;
+        this.xCount = xCount;
+        this.oCount = oCount;
+        this.winner = winner;
+    }
+
+    public static boolean isValidSize(int rows, int columns, int winLength) {
+        return rows >= MIN_SIZE && rows <= MAX_SIZE
+                && columns >= MIN_SIZE && columns <= MAX_SIZE
+                && winLength >= MIN_SIZE && winLength <= Math.max(rows, columns);
+    }
+
+    public static BitBoard empty(int rows, int columns, int winLength) {
+        final int words = words(rows * columns);
+        return new BitBoard(rows, columns, winLength, new long[words], new long[words], 0, 0, null);
+    }
+
+    /**
+     * Rebuilds a stored board. The winner is not derivable from the bitsets alone without a rescan,
+     * so it is passed in alongside them.
+     */
+    public static BitBoard fromBits(int rows, int columns, int winLength, long[] xBits, long[] oBits,
+            String winner) {
+        return new BitBoard(rows, columns, winLength, xBits, oBits, bitCount(xBits), bitCount(oBits), winner);
+    }
+
+    public static Builder builder(int rows, int columns, int winLength) {
+        return new Builder(rows, columns, winLength);
+    }
+
+    public BitBoard play(int x, int y, String symbol) {
+        return new Builder(this).place(x, y, symbol).share();
+    }
+
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && x < rows && y >= 0 && y < columns;
+    }
+
+    public boolean isOccupied(int x, int y) {
+        final int cell = x * columns + y;
+        return isSet(xBits, cell) || isSet(oBits, cell);
+    }
+
+    public boolean isFull() {
+        return xCount + oCount == rows * columns;
+    }
+
+    public String winner() {
+        return winner;
+    }
+
+    public String nextSymbol() {
+        return xCount > oCount ? O : X;
+    }
+
+    public String symbolAt(int x, int y) {
+        final int cell = x * columns + y;
+        if (isSet(xBits, cell))
+            return X;
+        if (isSet(oBits, cell))
+            return O;
+
+        return null;
+    }
+
+    // 0 for an empty cell, 1 for X and 2 for O
+    int cellState(int cell) {
+        if (isSet(xBits, cell))
+            return 1;
+        if (isSet(oBits, cell))
+            return 2;
+
+        return 0;
+    }
+
+    public String[][] toMatrix() {
+        String[][] matrix = new String[rows][columns];
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                matrix[x][y] = symbolAt(x, y);
+            }
+        }
+
+        return matrix;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getMoveCount() {
+        return xCount + oCount;
+    }
+
+    public int getCells() {
+        return rows * columns;
+    }
+
+    public long[] getXBits() {
+        return xBits.clone();
+    }
+
+    public long[] getOBits() {
+        return oBits.clone();
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    private static int words(int cells) {
+        return (cells + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Mutable accumulator used to fold many moves into a board without copying the bitsets per move.
+     */
+    public static final class Builder {
+
+        private final int rows;
+        private final int columns;
+        private final int winLength;
+        private final long[] xBits;
+        private final long[] oBits;
+        private int xCount;
+        private int oCount;
+        private String winner;
+
+        private Builder(int rows, int columns, int winLength) {
+            this.rows = rows;
+            this.columns = columns;
+            this.winLength = winLength;
+            this.xBits = new long[words(rows * columns)];
+            this.oBits = new long[xBits.length];
+        }
+
+        private Builder(BitBoard board) {
+            this.rows = board.rows;
+            this.columns = board.columns;
+            this.winLength = board.winLength;
+            this.xBits = board.xBits.clone();
+            this.oBits = board.oBits.clone();
+            this.xCount = board.xCount;
+            this.oCount = board.oCount;
+            this.winner = board.winner;
+        }
+
+        public Builder place(int x, int y, String symbol) {
+            final int cell = x * columns + y;
+            final long[] bits;
+            if (X.equals(symbol)) {
+                bits = xBits;
+                xCount++;
+            } else {
+                bits = oBits;
+                oCount++;
+            }
+            bits[cell >>> 6] |= 1L << cell;
+
+            if (winner == null && completesLine(bits, x, y))
+                winner = X.equals(symbol) ? X : O;
+
+            return this;
+        }
+
+        public BitBoard build() {
+            return new BitBoard(rows, columns, winLength, Arrays.copyOf(xBits, xBits.length),
+                    Arrays.copyOf(oBits, oBits.length), xCount, oCount, winner);
+        }
+
+        // The builder's own bitsets become the board's; only used where the builder is discarded afterwards
+        private BitBoard share() {
+            return new BitBoard(rows, columns, winLength, xBits, oBits, xCount, oCount, winner);
+        }
+
+        private boolean completesLine(long[] bits, int x, int y) {
+            for (int[] direction : DIRECTIONS) {
+                final int count = 1
+                        + countFrom(bits, x, y, direction[0], direction[1])
+                        + countFrom(bits, x, y, -direction[0], -direction[1]);
+                if (count >= winLength)
+                    return true;
+            }
+
+            return false;
+        }
+
+        private int countFrom(long[] bits, int x, int y, int dx, int dy) {
+            int count = 0;
+            int cx = x + dx;
+            int cy = y + dy;
+            while (count < winLength && cx >= 0 && cx < rows && cy >= 0 && cy < columns
+                    && isSet(bits, cx * columns + cy)) {
+                count++;
+                cx += dx;
+                cy += dy;
+            }
+
+            return count;
+        }
+    }
+}
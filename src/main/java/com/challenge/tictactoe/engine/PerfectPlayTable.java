@@ -0,0 +1,125 @@
+package com.challenge.tictactoe.engine;
+
+import java.util.Arrays;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Best move for every reachable classic 3x3 position, solved once at startup.
+ * Positions are indexed by their base-3 encoding (0 empty, 1 X, 2 O, cell 0 least significant),
+ * so looking up a move is a single array read.
+ */
+@Component
+public class PerfectPlayTable {
+
+    public static final int NO_MOVE = -1;
+
+    private static final int CELLS = 9;
+    private static final int POSITIONS = 19683; // 3^9
+    private static final int[] POW3 = { 1, 3, 9, 27, 81, 243, 729, 2187, 6561 };
+    private static final int[][] LINES = {
+            { 0, 1, 2 }, { 3, 4, 5 }, { 6, 7, 8 },
+            { 0, 3, 6 }, { 1, 4, 7 }, { 2, 5, 8 },
+            { 0, 4, 8 }, { 2, 4, 6 }
+    };
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+
+    private final byte[] bestMoves = new byte[POSITIONS];
+    private final byte[] scores = new byte[POSITIONS];
+    private int reachablePositions;
+
+    public PerfectPlayTable() {
+        Arrays.fill(bestMoves, (byte) NO_MOVE);
+        Arrays.fill(scores, UNSOLVED);
+        solve(0, 1);
+    }
+
+    public static boolean supports(int rows, int columns, int winLength) {
+        return rows == 3 && columns == 3 && winLength == 3;
+    }
+
+    /**
+     * Returns the cell index ({@code x * 3 + y}) of the best move for the side to play,
+     * or {@link #NO_MOVE} when the game is already over.
+     */
+    public int bestMove(BitBoard board) {
+        return bestMoves[encode(board)];
+    }
+
+    public int getReachablePositions() {
+        return reachablePositions;
+    }
+
+    static int encode(BitBoard board) {
+        int index = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            index += board.cellState(cell) * POW3[cell];
+        }
+
+        return index;
+    }
+
+    /**
+     * Negamax over the game tree, memoized per position. Scores favour quicker wins and slower losses
+     * from the point of view of {@code player} (1 for X, 2 for O).
+     */
+    private int solve(int position, int player) {
+        if (scores[position] != UNSOLVED)
+            return scores[position];
+
+        reachablePositions++;
+
+        final int opponent = 3 - player;
+        if (hasLine(position, opponent))
+            return store(position, -10 + depth(position), NO_MOVE);
+
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = NO_MOVE;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (digit(position, cell) != 0)
+                continue;
+
+            final int score = -solve(position + player * POW3[cell], opponent);
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = cell;
+            }
+        }
+
+        if (bestMove == NO_MOVE)
+            return store(position, 0, NO_MOVE);
+
+        return store(position, bestScore, bestMove);
+    }
+
+    private int store(int position, int score, int move) {
+        scores[position] = (byte) score;
+        bestMoves[position] = (byte) move;
+        return score;
+    }
+
+    private static boolean hasLine(int position, int player) {
+        for (int[] line : LINES) {
+            if (digit(position, line[0]) == player
+                    && digit(position, line[1]) == player
+                    && digit(position, line[2]) == player)
+                return true;
+        }
+
+        return false;
+    }
+
+    private static int depth(int position) {
+        int depth = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (digit(position, cell) != 0)
+                depth++;
+        }
+
+        return depth;
+    }
+
+    private static int digit(int position, int cell) {
+        return position / POW3[cell] % 3;
+    }
+}
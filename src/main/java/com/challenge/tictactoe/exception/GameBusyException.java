@@ -0,0 +1,15 @@
+package com.challenge.tictactoe.exception;
+
+/**
+ * Raised when the shard owning a game has too many queued commands to accept another one.
+ */
+public class GameBusyException extends RuntimeException {
+
+    public static final String MESSAGE = "Too many pending moves, retry later";
+
+    private static final long serialVersionUID = 1L;
+
+    public GameBusyException() {
+        super(MESSAGE);
+    }
+}
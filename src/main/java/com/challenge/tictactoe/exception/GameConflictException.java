@@ -0,0 +1,16 @@
+package com.challenge.tictactoe.exception;
+
+/**
+ * Raised when a conditional write finds the game at a different version than the one the move was
+ * validated against, i.e. another request changed it in between.
+ */
+public class GameConflictException extends Exception {
+
+    public static final String MESSAGE = "Game was updated concurrently";
+
+    private static final long serialVersionUID = 1L;
+
+    public GameConflictException() {
+        super(MESSAGE);
+    }
+}
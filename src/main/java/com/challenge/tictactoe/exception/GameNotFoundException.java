@@ -0,0 +1,23 @@
+package com.challenge.tictactoe.exception;
+
+import javax.naming.NameNotFoundException;
+
+/**
+ * Raised for an unknown game id. Like {@link InvalidMoveException} it is a single preallocated instance
+ * without a stack trace, since probing random ids costs a cache miss and a query but should not cost more.
+ */
+public final class GameNotFoundException extends NameNotFoundException {
+
+    public static final GameNotFoundException INSTANCE = new GameNotFoundException();
+
+    private static final long serialVersionUID = 1L;
+
+    private GameNotFoundException() {
+        super("Game ID not found");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
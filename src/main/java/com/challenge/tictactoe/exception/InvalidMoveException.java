@@ -0,0 +1,41 @@
+package com.challenge.tictactoe.exception;
+
+import javax.management.InvalidAttributeValueException;
+
+/**
+ * A request that breaks the game rules, e.g. a move on an occupied cell. Clients can send these as fast as
+ * they like and each one is rejected from memory, so the instances are preallocated, one per rule, and never
+ * fill in a stack trace. Being shared, they must not be given a cause or suppressed exceptions.
+ */
+public final class InvalidMoveException extends InvalidAttributeValueException {
+
+    public static final InvalidMoveException INVALID_SYMBOL = new InvalidMoveException("invalid_symbol",
+            "Invalid symbol");
+    public static final InvalidMoveException INVALID_BOARD_SIZE = new InvalidMoveException("invalid_board_size",
+            "Invalid board size");
+    public static final InvalidMoveException INVALID_GAME_MODE = new InvalidMoveException("invalid_game_mode",
+            "Invalid game mode");
+    public static final InvalidMoveException INVALID_CELL = new InvalidMoveException("invalid_cell",
+            "Invalid request");
+    public static final InvalidMoveException GAME_OVER = new InvalidMoveException("game_over",
+            "Game winner has already been decided");
+
+    private static final long serialVersionUID = 1L;
+
+    // Tag of the game.moves.rejected counter
+    private final String reason;
+
+    private InvalidMoveException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,31 @@
+package com.challenge.tictactoe.model;
+
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Selects games for a bulk delete; every criterion that is set must match.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameFilter {
+
+    private GameStatus status;
+    private GameMode mode;
+
+    // Last move, or creation for games without a second move, strictly before this time
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant updatedBefore;
+
+    public boolean isEmpty() {
+        return status == null && mode == null && updatedBefore == null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.challenge.tictactoe.model;
+
+public enum GameMode {
+    TWO_PLAYER,
+    // The server answers every X move with a perfect-play O move
+    SINGLE_PLAYER
+}
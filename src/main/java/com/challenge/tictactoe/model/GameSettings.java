@@ -0,0 +1,18 @@
+package com.challenge.tictactoe.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSettings {
+
+    private int rows;
+    private int columns;
+    private int winLength;
+    private GameMode mode;
+}
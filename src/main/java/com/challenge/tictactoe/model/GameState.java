@@ -0,0 +1,26 @@
+package com.challenge.tictactoe.model;
+
+import com.challenge.tictactoe.engine.BitBoard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Compact, immutable snapshot of a game as held in memory and stored in the game table.
+ */
+@Getter
+@AllArgsConstructor
+public class GameState {
+
+    private final BitBoard board;
+    private final GameMode mode;
+
+    // Every accepted move bumps the version, so the move count doubles as the row version
+    public int getVersion() {
+        return board.getMoveCount();
+    }
+
+    public GameStatus getStatus() {
+        return GameStatus.of(board);
+    }
+}
@@ -0,0 +1,58 @@
+package com.challenge.tictactoe.model;
+
+import com.challenge.tictactoe.engine.BitBoard;
+
+public enum GameStatus {
+    IN_PROGRESS(0),
+    X_WON(1),
+    O_WON(2),
+    DRAW(3);
+
+    // values() copies the array on every call, and games are decoded on every cache miss
+    private static final GameStatus[] BY_CODE = new GameStatus[values().length];
+
+    static {
+        for (GameStatus status : values()) {
+            if (status.code < 0 || status.code >= BY_CODE.length || BY_CODE[status.code] != null)
+                throw new IllegalStateException("Game status codes must be distinct and run from 0 without gaps");
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final int code;
+
+    GameStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getWinner() {
+        if (this == X_WON)
+            return BitBoard.X;
+        if (this == O_WON)
+            return BitBoard.O;
+
+        return null;
+    }
+
+    public static GameStatus fromCode(int code) {
+        if (code >= 0 && code < BY_CODE.length)
+            return BY_CODE[code];
+
+        throw new IllegalArgumentException("Unknown game status " + code);
+    }
+
+    public static GameStatus of(BitBoard board) {
+        if (BitBoard.X.equals(board.winner()))
+            return X_WON;
+        if (BitBoard.O.equals(board.winner()))
+            return O_WON;
+        if (board.isFull())
+            return DRAW;
+
+        return IN_PROGRESS;
+    }
+}
@@ -0,0 +1,34 @@
+package com.challenge.tictactoe.model;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A pending write of a game's state; new games have no expected version. Journals also record deletes as
+ * writes without a state.
+ */
+@Getter
+@AllArgsConstructor
+public class GameWrite {
+
+    public static final int NEW_GAME = -1;
+    public static final int DELETED = -2;
+
+    private final UUID id;
+    private final GameState state;
+    private final int expectedVersion;
+
+    public static GameWrite delete(UUID id) {
+        return new GameWrite(id, null, DELETED);
+    }
+
+    public boolean isNewGame() {
+        return expectedVersion == NEW_GAME;
+    }
+
+    public boolean isDelete() {
+        return expectedVersion == DELETED;
+    }
+}
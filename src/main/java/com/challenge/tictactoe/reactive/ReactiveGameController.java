@@ -0,0 +1,107 @@
+package com.challenge.tictactoe.reactive;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.challenge.tictactoe.api.codec.GameWireFormats;
+import com.challenge.tictactoe.api.request.GameRequest;
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.api.response.GameStatsResponse;
+import com.challenge.tictactoe.service.GameStats;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The /game API served by WebFlux handlers when the {@code reactive} profile is active. Errors are mapped by
+ * the same {@link com.challenge.tictactoe.config.ControllerAdviceConfig} as the servlet controller.
+ */
+@RestController
+@RequestMapping("game")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveGameController {
+
+    private final ReactiveGameService gameService;
+    private final GameStats gameStats;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<UUID>>> getGames(@RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return gameService.getAll(after, limit).collectList().map(ResponseEntity::ok);
+    }
+
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<byte[]> streamGames(@RequestParam(required = false) UUID after) {
+        return gameService.streamAll(after)
+                .map(id -> ("\"" + id + "\"\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<GameStatsResponse>> getStats() {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(gameStats.getStats()));
+    }
+
+    @GetMapping(path = "/{id}", produces = { MediaType.APPLICATION_JSON_VALUE, GameWireFormats.BINARY_VALUE,
+            GameWireFormats.BOARD_VALUE })
+    public Mono<ResponseEntity<GameResponse>> getGameById(@PathVariable UUID id) {
+        return gameService.getById(id)
+                .map(game -> ResponseEntity.ok().eTag(eTag(game)).varyBy(HttpHeaders.ACCEPT).body(game));
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> subscribe(@PathVariable UUID id) {
+        return gameService.subscribe(id)
+                .map(gameJson -> ServerSentEvent.builder(gameJson).event("game").build());
+    }
+
+    @PostMapping(produces = { MediaType.APPLICATION_JSON_VALUE, GameWireFormats.BINARY_VALUE,
+            GameWireFormats.BOARD_VALUE })
+    public Mono<ResponseEntity<GameResponse>> createGame(@RequestBody GameRequest body) {
+        return gameService.createGame(body)
+                .map(game -> ResponseEntity.created(location(game)).eTag(eTag(game)).varyBy(HttpHeaders.ACCEPT)
+                        .body(game));
+    }
+
+    @PatchMapping(path = "/{id}", produces = { MediaType.APPLICATION_JSON_VALUE, GameWireFormats.BINARY_VALUE,
+            GameWireFormats.BOARD_VALUE })
+    public Mono<ResponseEntity<GameResponse>> playTurn(@PathVariable UUID id, @RequestBody GameRequest body) {
+        return gameService.playTurn(id, body)
+                .map(game -> ResponseEntity.ok().eTag(eTag(game)).varyBy(HttpHeaders.ACCEPT).body(game));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable UUID id) {
+        return gameService.deleteById(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private static URI location(GameResponse game) {
+        return URI.create("/game/" + game.getId());
+    }
+
+    /**
+     * Weak, as the JSON, binary and board string representations of a version share it; responses vary by
+     * Accept so caches keep them apart.
+     */
+    private static String eTag(GameResponse game) {
+        return "W/\"" + game.getVersion() + "\"";
+    }
+}
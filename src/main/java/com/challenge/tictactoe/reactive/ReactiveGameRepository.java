@@ -0,0 +1,130 @@
+package com.challenge.tictactoe.reactive;
+
+import java.util.UUID;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.repo.mapper.BitsCodec;
+import com.challenge.tictactoe.repo.mapper.GameStateMapper;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link com.challenge.tictactoe.repo.GameInfoRepository} over R2DBC, using the
+ * same game table and statements.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveGameRepository {
+
+    private static final String CREATE_SQL = ""
+            + "INSERT INTO game (id, board_rows, board_columns, win_length, mode, x_bits, o_bits, version, status) "
+            + "VALUES (:id, :rows, :columns, :winLength, :mode, :xBits, :oBits, :version, :status)";
+
+    private static final String UPDATE_SQL = ""
+            + "UPDATE game SET x_bits = :xBits, o_bits = :oBits, version = :version, status = :status, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE id = :id AND version = :expectedVersion AND status = 0";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<UUID> getAll(UUID after, int limit) {
+        final GenericExecuteSpec spec = after == null
+                ? databaseClient.sql("SELECT id FROM game ORDER BY id LIMIT :limit")
+                : databaseClient.sql("SELECT id FROM game WHERE id > :after ORDER BY id LIMIT :limit")
+                        .bind("after", after);
+
+        return spec.bind("limit", limit)
+                .map(row -> row.get("id", UUID.class))
+                .all();
+    }
+
+    /**
+     * Emits every id after the given one as the driver receives the rows.
+     */
+    public Flux<UUID> streamAll(UUID after) {
+        final GenericExecuteSpec spec = after == null
+                ? databaseClient.sql("SELECT id FROM game ORDER BY id")
+                : databaseClient.sql("SELECT id FROM game WHERE id > :after ORDER BY id").bind("after", after);
+
+        return spec.map(row -> row.get("id", UUID.class)).all();
+    }
+
+    /**
+     * Finds the game in the game table, falling back to the archive for finished games moved there.
+     */
+    public Mono<GameState> getById(UUID id) {
+        return getById("game", id).switchIfEmpty(Mono.defer(() -> getById("game_archive", id)));
+    }
+
+    public Mono<Void> create(UUID id, GameState state) {
+        final BitBoard board = state.getBoard();
+
+        return bindState(databaseClient.sql(CREATE_SQL), id, state)
+                .bind("rows", board.getRows())
+                .bind("columns", board.getColumns())
+                .bind("winLength", board.getWinLength())
+                .bind("mode", state.getMode().name())
+                .then();
+    }
+
+    /**
+     * Same conditional write as the blocking repository.
+     *
+     * @return false when the row was changed or finished since it was read
+     */
+    public Mono<Boolean> update(UUID id, GameState state, int expectedVersion) {
+        return bindState(databaseClient.sql(UPDATE_SQL), id, state)
+                .bind("expectedVersion", expectedVersion)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count == 1);
+    }
+
+    public Mono<Void> deleteById(UUID id) {
+        return databaseClient.sql("DELETE FROM game WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(count -> count > 0
+                        ? Mono.empty()
+                        : databaseClient.sql("DELETE FROM game_archive WHERE id = :id").bind("id", id).then());
+    }
+
+    private Mono<GameState> getById(String table, UUID id) {
+        return databaseClient.sql("SELECT board_rows, board_columns, win_length, mode, x_bits, o_bits, status "
+                + "FROM " + table + " WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveGameRepository::toState)
+                .one();
+    }
+
+    private GenericExecuteSpec bindState(GenericExecuteSpec spec, UUID id, GameState state) {
+        final BitBoard board = state.getBoard();
+
+        return spec.bind("id", id)
+                .bind("xBits", BitsCodec.toBytes(board.getXBits(), board.getCells()))
+                .bind("oBits", BitsCodec.toBytes(board.getOBits(), board.getCells()))
+                .bind("version", state.getVersion())
+                .bind("status", state.getStatus().getCode());
+    }
+
+    private static GameState toState(Row row) {
+        return GameStateMapper.toState(
+                row.get("board_rows", Integer.class),
+                row.get("board_columns", Integer.class),
+                row.get("win_length", Integer.class),
+                row.get("mode", String.class),
+                row.get("x_bits", byte[].class),
+                row.get("o_bits", byte[].class),
+                row.get("status", Integer.class));
+    }
+}
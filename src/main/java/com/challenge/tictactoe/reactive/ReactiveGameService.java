@@ -0,0 +1,143 @@
+package com.challenge.tictactoe.reactive;
+
+import java.util.UUID;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.challenge.tictactoe.api.request.GameRequest;
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.exception.GameNotFoundException;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.service.GameMetrics;
+import com.challenge.tictactoe.service.GameRules;
+import com.challenge.tictactoe.service.GameService;
+import com.challenge.tictactoe.service.GameStateCache;
+import com.challenge.tictactoe.service.GameStats;
+import com.challenge.tictactoe.service.GameSubscriptions;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link GameService}. Validation and AI replies come from the same {@link GameRules}
+ * and the same state cache; only the I/O is non-blocking. Concurrent moves on one game are settled by the
+ * version-checked update alone, since holding a lock would block the event loop.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveGameService {
+
+    private final ReactiveGameRepository gameRepository;
+    private final GameRules gameRules;
+    private final GameStateCache gameStateCache;
+    private final GameSubscriptions gameSubscriptions;
+    private final GameMetrics gameMetrics;
+    private final GameStats gameStats;
+
+    public Flux<UUID> getAll(UUID after, int limit) {
+        if (limit < 1 || limit > GameService.MAX_PAGE_SIZE)
+            return Flux.error(new InvalidAttributeValueException("Invalid limit"));
+
+        return gameRepository.getAll(after, limit);
+    }
+
+    public Flux<UUID> streamAll(UUID after) {
+        return gameRepository.streamAll(after);
+    }
+
+    public Mono<GameResponse> getById(UUID id) {
+        return loadState(id).map(state -> GameResponse.of(id, state.getBoard()));
+    }
+
+    public Mono<GameResponse> createGame(GameRequest request) {
+        return Mono.fromCallable(() -> gameRules.newGame(request))
+                .flatMap(state -> {
+                    final UUID id = UUID.randomUUID();
+
+                    return gameRepository.create(id, state)
+                            .then(Mono.fromCallable(() -> {
+                                gameStateCache.put(id, state);
+                                gameStats.recordCreated(state);
+                                return GameResponse.of(id, state.getBoard());
+                            }));
+                });
+    }
+
+    public Mono<GameResponse> playTurn(UUID id, GameRequest request) {
+        return loadState(id)
+                .flatMap(state -> Mono.fromCallable(() -> gameRules.play(state, request))
+                        .flatMap(newState -> gameRepository.update(id, newState, state.getVersion())
+                                .flatMap(updated -> {
+                                    if (!updated) {
+                                        // Another request wrote first, reload the game on the next access
+                                        gameStateCache.invalidate(id);
+                                        return Mono.error(new GameConflictException());
+                                    }
+                                    gameStateCache.put(id, newState);
+                                    gameMetrics.recordCommitted(newState);
+                                    gameStats.recordCommitted(newState);
+
+                                    final GameResponse response = GameResponse.of(id, newState.getBoard());
+                                    gameSubscriptions.publish(id, response);
+
+                                    return Mono.just(response);
+                                })));
+    }
+
+    public Mono<Void> deleteById(UUID id) {
+        return loadState(id)
+                .flatMap(state -> gameRepository.deleteById(id)
+                        .then(Mono.fromRunnable(() -> {
+                            gameStateCache.invalidate(id);
+                            gameSubscriptions.close(id);
+                            if (state.getStatus() == GameStatus.IN_PROGRESS)
+                                gameStats.recordAbandoned(1);
+                        })));
+    }
+
+    /**
+     * Emits the game as JSON now and after every move, completing when it ends or is deleted. Without the
+     * per-game lock of the servlet stack, a move committed while the subscription is being set up may be
+     * missed; the next move carries the full board again.
+     */
+    public Flux<String> subscribe(UUID id) {
+        return loadState(id).flatMapMany(state -> Flux.create(sink -> {
+            final Runnable unsubscribe = gameSubscriptions.subscribe(id, GameResponse.of(id, state.getBoard()),
+                    new GameSubscriptions.Listener() {
+                        @Override
+                        public void onUpdate(String gameJson) {
+                            sink.next(gameJson);
+                        }
+
+                        @Override
+                        public void onClose() {
+                            sink.complete();
+                        }
+                    });
+            sink.onDispose(unsubscribe::run);
+        }, FluxSink.OverflowStrategy.LATEST)); // every update holds the full board, a slow client only needs the last
+    }
+
+    /**
+     * Serves the game from the cache, loading and caching it from the database on a miss.
+     */
+    private Mono<GameState> loadState(UUID id) {
+        return Mono.defer(() -> {
+            final GameState cached = gameStateCache.get(id);
+            if (cached != null)
+                return Mono.just(cached);
+
+            return gameRepository.getById(id)
+                    .switchIfEmpty(Mono.error(GameNotFoundException.INSTANCE))
+                    .doOnNext(state -> gameStateCache.put(id, state));
+        });
+    }
+}
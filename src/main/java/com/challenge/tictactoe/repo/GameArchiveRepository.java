@@ -0,0 +1,162 @@
+package com.challenge.tictactoe.repo;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.challenge.tictactoe.model.GameFilter;
+import com.challenge.tictactoe.repo.mapper.IDMapper;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Moves finished games out of the game table and deletes games by filter. Every method handles at most one
+ * batch in its own short transaction, locking only the rows of that batch, so callers loop until a batch
+ * comes back short. On PostgreSQL a batch skips rows another node's sweep has locked instead of waiting for
+ * them; other databases wait.
+ */
+@Repository
+@Profile("!reactive & !embedded")
+@Timed(value = "game.repository", histogram = true)
+@RequiredArgsConstructor
+public class GameArchiveRepository {
+
+    private static final String COLUMNS = ""
+            + "id, board_rows, board_columns, win_length, mode, x_bits, o_bits, version, status, updated_at";
+
+    private static final String SELECT_FINISHED_SQL = ""
+            + "SELECT id FROM game WHERE status <> 0 AND updated_at < :before "
+            + "ORDER BY updated_at LIMIT :limit FOR UPDATE";
+
+    private static final String SKIP_LOCKED = " SKIP LOCKED";
+
+    private static final String ARCHIVE_SQL = ""
+            + "INSERT INTO game_archive (" + COLUMNS + ", archived_at) "
+            + "SELECT " + COLUMNS + ", :archivedAt FROM game WHERE id IN (:ids) AND status <> 0";
+
+    private static final String DELETE_ARCHIVED_SQL = "DELETE FROM game WHERE id IN (:ids) AND status <> 0";
+
+    private final IDMapper idMapper;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Null until the first check asks the database which kind it is
+    private Boolean postgres;
+
+    /**
+     * Moves up to {@code limit} games that finished before the given time into the archive, oldest first.
+     * Finished games never change again, so rows are copied and deleted without a version check.
+     *
+     * @return number of games moved
+     */
+    @Transactional
+    public int archiveFinished(Instant finishedBefore, Instant archivedAt, int limit) {
+        var map = new MapSqlParameterSource();
+        map.addValue("before", Timestamp.from(finishedBefore));
+        map.addValue("limit", limit);
+
+        final List<UUID> ids = namedJdbcTemplate.query(SELECT_FINISHED_SQL + skipLocked(), map, idMapper);
+        if (ids.isEmpty())
+            return 0;
+
+        map.addValue("ids", ids);
+        map.addValue("archivedAt", Timestamp.from(archivedAt));
+        namedJdbcTemplate.update(ARCHIVE_SQL, map);
+
+        return namedJdbcTemplate.update(DELETE_ARCHIVED_SQL, map);
+    }
+
+    /**
+     * Deletes up to {@code limit} games matching the filter, from the game table first and, once no live game
+     * matches, from the archive.
+     *
+     * @return ids of the deleted games
+     */
+    @Transactional
+    public List<UUID> deleteMatching(GameFilter filter, int limit) {
+        final List<UUID> ids = deleteMatching("game", filter, limit);
+        if (!ids.isEmpty())
+            return ids;
+
+        return deleteMatching("game_archive", filter, limit);
+    }
+
+    /**
+     * Creates the archive partition holding the given month, if the archive is partitioned and it does not
+     * exist yet; only the PostgreSQL archive is partitioned. Taking the parent table's lock for this once a
+     * month is cheap; rows archived before their month's partition exists would land in the default partition
+     * and block creating it later.
+     */
+    public void createArchivePartition(YearMonth month) {
+        if (!isPostgres())
+            return;
+
+        final String from = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+        final String to = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+
+        namedJdbcTemplate.getJdbcTemplate().execute(String.format(
+                "CREATE TABLE IF NOT EXISTS public.game_archive_%d_%02d PARTITION OF public.game_archive "
+                        + "FOR VALUES FROM ('%s') TO ('%s')",
+                month.getYear(), month.getMonthValue(), from, to));
+    }
+
+    private List<UUID> deleteMatching(String table, GameFilter filter, int limit) {
+        var map = new MapSqlParameterSource();
+        final String where = toCondition(filter, map);
+        map.addValue("limit", limit);
+
+        final List<UUID> ids = new ArrayList<>(namedJdbcTemplate.query(
+                "SELECT id FROM " + table + " WHERE " + where + " LIMIT :limit FOR UPDATE" + skipLocked(), map,
+                idMapper));
+        if (ids.isEmpty())
+            return ids;
+
+        // The filter is repeated so a game changed since it was selected is left alone
+        map.addValue("ids", ids);
+        namedJdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (:ids) AND " + where, map);
+
+        return ids;
+    }
+
+    private static String toCondition(GameFilter filter, MapSqlParameterSource map) {
+        final List<String> conditions = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            conditions.add("status = :status");
+            map.addValue("status", filter.getStatus().getCode());
+        }
+        if (filter.getMode() != null) {
+            conditions.add("mode = :mode");
+            map.addValue("mode", filter.getMode().name());
+        }
+        if (filter.getUpdatedBefore() != null) {
+            conditions.add("updated_at < :updatedBefore");
+            map.addValue("updatedBefore", Timestamp.from(filter.getUpdatedBefore()));
+        }
+
+        return conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions);
+    }
+
+    private String skipLocked() {
+        return isPostgres() ? SKIP_LOCKED : "";
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = namedJdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+
+        return postgres;
+    }
+}
@@ -1,72 +1,56 @@
 package com.challenge.tictactoe.repo;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-
-import javax.management.InvalidAttributeValueException;
-
-import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.stereotype.Repository;
-
-import com.challenge.tictactoe.api.request.GameRequest;
-import com.challenge.tictactoe.repo.entity.GameInfo;
-import com.challenge.tictactoe.repo.mapper.GameInfoMapper;
-import com.challenge.tictactoe.repo.mapper.IDMapper;
-
-import lombok.RequiredArgsConstructor;
-
-@Repository
-@RequiredArgsConstructor
-public class GameInfoRepository {
-
-    private final IDMapper idMapper;
-    private final GameInfoMapper rowMapper;
-    private final NamedParameterJdbcTemplate namedJdbcTemplate;
-
-    public UUID[] getAll() {
-        var sql = "SELECT id FROM gameinfo GROUP BY id;";
-
-        try {
-            return namedJdbcTemplate.query(sql, idMapper).toArray(new UUID[0]);
-        } catch (DataAccessException e) {
-            return new UUID[0];
-        }
-    }
-
-    public GameInfo[] getById(UUID id) {
-        var sql = "SELECT * FROM gameinfo WHERE id = :id";
-
-        var map = new MapSqlParameterSource();
-        map.addValue("id", id.toString());
-
-        return namedJdbcTemplate.query(sql, map, rowMapper).toArray(new GameInfo[0]);
-    }
-
-    public GameInfo[] playTurn(UUID id, GameRequest request)
-            throws InvalidAttributeValueException {
-        var sql = "INSERT INTO gameinfo (id, symbol, x, y) VALUES (:id, :symbol, :x, :y);";
-
-        var map = new MapSqlParameterSource();
-        map.addValue("id", id);
-        map.addValue("symbol", request.getSymbol());
-        map.addValue("x", request.getX());
-        map.addValue("y", request.getY());
-
-        try {
-            namedJdbcTemplate.update(sql, map);
-            return getById(id);
-        } catch (DataAccessException e) {
-            throw new InvalidAttributeValueException("Invalid request");
-        }
-    }
-
-    public void deleteById(UUID id) {
-        var sql = "DELETE FROM gameinfo WHERE id = :id";
-
-        var map = new MapSqlParameterSource();
-        map.addValue("id", id.toString());
-
-        namedJdbcTemplate.update(sql, map);
-    }
-}
\ No newline at end of file
+import java.util.function.Consumer;
+
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+
+/**
+ * Where games are kept: {@link JdbcGameInfoRepository} in PostgreSQL by default, or
+ * {@link MappedFileGameInfoRepository} in a local file with the {@code embedded} profile.
+ */
+public interface GameInfoRepository {
+
+    /**
+     * Returns up to {@code limit} ids in id order, starting after the given id (keyset pagination).
+     */
+    UUID[] getAll(UUID after, int limit);
+
+    /**
+     * Passes every id after the given one to the consumer in id order, without collecting them first.
+     */
+    void streamAll(UUID after, Consumer<UUID> consumer);
+
+    /**
+     * @return the game, or null if there is none with this id
+     */
+    GameState getById(UUID id);
+
+    /**
+     * Ids that do not exist are absent from the result.
+     */
+    Map<UUID, GameState> getByIds(Collection<UUID> ids);
+
+    void create(UUID id, GameState state);
+
+    /**
+     * Writes the new board only if the stored game is still at {@code expectedVersion} and undecided.
+     *
+     * @return false when the game was changed or finished since it was read
+     */
+    boolean update(UUID id, GameState state, int expectedVersion);
+
+    /**
+     * Applies all creates and conditional updates together.
+     *
+     * @return ids of games whose update failed because they changed since they were read
+     */
+    Set<UUID> writeAll(List<GameWrite> writes);
+
+    void deleteById(UUID id);
+}
@@ -0,0 +1,285 @@
+package com.challenge.tictactoe.repo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+import com.challenge.tictactoe.repo.mapper.BitsCodec;
+import com.challenge.tictactoe.repo.mapper.GameStateMapper;
+
+/**
+ * Append-only log of game writes and deletes not yet known to be durable in the store, kept as numbered
+ * segment files. Appends are buffered; {@link #sync} forces them to disk, so they survive the machine going
+ * down, and callers appending concurrently share one sync. The caller rotates to a new segment and deletes the
+ * old ones once everything they hold is durable. Whatever segments exist at startup belong to changes that
+ * may not have reached the store.
+ * <p>
+ * Every record is framed by its length and a CRC32 of its content, so a record torn by a crash, or a tail
+ * the file system left zero-filled, is recognized on recovery and cut off with everything after it.
+ */
+public class GameJournal implements Closeable {
+
+    private static final String PREFIX = "moves-";
+    private static final String SUFFIX = ".log";
+
+    // Length and checksum ahead of every record
+    private static final int FRAME = 2 * Integer.BYTES;
+    // Id and expected version of a delete, the shortest record
+    private static final int MIN_RECORD = 2 * Long.BYTES + Integer.BYTES;
+    private static final int MAX_RECORD = 64 * 1024;
+
+    private final Path directory;
+    private final List<Path> recoveredSegments;
+
+    private final Object syncLock = new Object();
+
+    private long sequence;
+    private Path segment;
+    private FileChannel channel;
+    private DataOutputStream out;
+
+    // Content of the record being appended, written out with its frame once complete
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 checksum = new CRC32();
+
+    // Records appended, and records known to be on disk, over all segments
+    private long appended;
+    private long synced;
+
+    public GameJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            this.recoveredSegments = files
+                    .filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (!recoveredSegments.isEmpty())
+            sequence = sequenceOf(recoveredSegments.get(recoveredSegments.size() - 1));
+
+        open();
+    }
+
+    /**
+     * Reads the writes of the segments found at startup, oldest first. The first record that is cut short or
+     * fails its checksum ends its segment, which is truncated there.
+     */
+    public List<GameWrite> recover() throws IOException {
+        final List<GameWrite> writes = new ArrayList<>();
+        for (Path recovered : recoveredSegments) {
+            try (FileChannel file = FileChannel.open(recovered, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file)))) {
+                long valid = 0;
+                byte[] content;
+                while ((content = readRecord(in)) != null) {
+                    writes.add(read(new DataInputStream(new ByteArrayInputStream(content))));
+                    valid += FRAME + content.length;
+                }
+                if (valid < file.size())
+                    file.truncate(valid);
+            }
+        }
+
+        return writes;
+    }
+
+    public List<Path> getRecoveredSegments() {
+        return recoveredSegments;
+    }
+
+    /**
+     * @return the position to {@link #sync} up to for the write to be durable
+     */
+    public synchronized long append(GameWrite write) throws IOException {
+        final GameState state = write.getState();
+        final BitBoard board = state.getBoard();
+
+        record.reset();
+        writeHeader(write.getId(), write.getExpectedVersion());
+        recordOut.writeByte(board.getRows());
+        recordOut.writeByte(board.getColumns());
+        recordOut.writeByte(board.getWinLength());
+        recordOut.writeUTF(state.getMode().name());
+        recordOut.writeByte(state.getStatus().getCode());
+        writeBytes(BitsCodec.toBytes(board.getXBits(), board.getCells()));
+        writeBytes(BitsCodec.toBytes(board.getOBits(), board.getCells()));
+        writeRecord();
+
+        return ++appended;
+    }
+
+    /**
+     * Records a delete; it is read back as a {@link GameWrite#isDelete() delete write}.
+     *
+     * @return the position to {@link #sync} up to for the delete to be durable
+     */
+    public synchronized long appendDelete(UUID id) throws IOException {
+        record.reset();
+        writeHeader(id, GameWrite.DELETED);
+        writeRecord();
+
+        return ++appended;
+    }
+
+    /**
+     * Forces everything appended up to the position to disk. A sync covers whatever was appended when it
+     * started, so callers waiting meanwhile usually find their records already forced.
+     */
+    public void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position)
+                return;
+
+            final FileChannel forced;
+            final long upTo;
+            synchronized (this) {
+                out.flush();
+                forced = channel;
+                upTo = appended;
+            }
+            // Appends go on while the disk catches up
+            forced.force(false);
+            synced = upTo;
+        }
+    }
+
+    /**
+     * Starts a new segment for the following appends. The segment being written is forced first if it holds
+     * records not synced yet, as later syncs only cover the new one.
+     *
+     * @return the segment that was being written
+     */
+    public Path rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                final Path previous = segment;
+                if (synced < appended) {
+                    out.flush();
+                    channel.force(false);
+                    synced = appended;
+                }
+                out.close();
+                open();
+
+                return previous;
+            }
+        }
+    }
+
+    public void delete(Collection<Path> segments) throws IOException {
+        for (Path old : segments)
+            Files.deleteIfExists(old);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        segment = directory.resolve(String.format("%s%019d%s", PREFIX, ++sequence, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    private void writeHeader(UUID id, int expectedVersion) throws IOException {
+        recordOut.writeLong(id.getMostSignificantBits());
+        recordOut.writeLong(id.getLeastSignificantBits());
+        recordOut.writeInt(expectedVersion);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        recordOut.writeShort(bytes.length);
+        recordOut.write(bytes);
+    }
+
+    private void writeRecord() throws IOException {
+        final byte[] content = record.toByteArray();
+        checksum.reset();
+        checksum.update(content);
+
+        out.writeInt(content.length);
+        out.writeInt((int) checksum.getValue());
+        out.write(content);
+    }
+
+    /**
+     * @return the content of the next record, or null at the end of the segment or of its intact records
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        final int length;
+        final int expected;
+        final byte[] content;
+        try {
+            length = in.readInt();
+            expected = in.readInt();
+            if (length < MIN_RECORD || length > MAX_RECORD)
+                return null;
+
+            content = new byte[length];
+            in.readFully(content);
+        } catch (EOFException e) {
+            return null;
+        }
+
+        final CRC32 checksum = new CRC32();
+        checksum.update(content);
+
+        return (int) checksum.getValue() == expected ? content : null;
+    }
+
+    private static GameWrite read(DataInputStream in) throws IOException {
+        final UUID id = new UUID(in.readLong(), in.readLong());
+        final int expectedVersion = in.readInt();
+        if (expectedVersion == GameWrite.DELETED)
+            return GameWrite.delete(id);
+
+        final int rows = in.readUnsignedByte();
+        final int columns = in.readUnsignedByte();
+        final int winLength = in.readUnsignedByte();
+        final String mode = in.readUTF();
+        final int status = in.readUnsignedByte();
+        final byte[] xBits = readBytes(in);
+        final byte[] oBits = readBytes(in);
+
+        return new GameWrite(id, GameStateMapper.toState(rows, columns, winLength, mode, xBits, oBits, status),
+                expectedVersion);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+
+        return bytes;
+    }
+
+    private static long sequenceOf(Path segment) {
+        final String name = segment.getFileName().toString();
+
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.challenge.tictactoe.repo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Running totals of the game statistics, shared by all nodes. Nodes add what they counted since their last
+ * checkpoint rather than writing their totals, so no node overwrites another's counts.
+ */
+@Repository
+@Profile("!reactive & !embedded")
+@Timed(value = "game.repository", histogram = true)
+@RequiredArgsConstructor
+public class GameStatsRepository {
+
+    private static final String ADD_SQL = "UPDATE game_stats SET total = total + :delta WHERE name = :name";
+
+    private static final String INSERT_SQL = "INSERT INTO game_stats (name, total) VALUES (:name, :delta)";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public Map<String, Long> getAll() {
+        final Map<String, Long> totals = new HashMap<>();
+        namedJdbcTemplate.query("SELECT name, total FROM game_stats", (RowCallbackHandler) rs ->
+                totals.put(rs.getString(1), rs.getLong(2)));
+
+        return totals;
+    }
+
+    /**
+     * Adds the deltas to their totals in one transaction, starting totals not seen before. If another node
+     * starts the same total at the same time the insert fails and nothing is added, so the caller can simply
+     * try again later.
+     */
+    @Transactional
+    public void add(Map<String, Long> deltas) {
+        if (deltas.isEmpty())
+            return;
+
+        final List<SqlParameterSource> parameters = new ArrayList<>();
+        deltas.forEach((name, delta) -> parameters.add(new MapSqlParameterSource()
+                .addValue("name", name)
+                .addValue("delta", delta)));
+
+        final SqlParameterSource[] batch = parameters.toArray(new SqlParameterSource[0]);
+        final int[] counts = namedJdbcTemplate.batchUpdate(ADD_SQL, batch);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0)
+                namedJdbcTemplate.update(INSERT_SQL, batch[i]);
+        }
+    }
+}
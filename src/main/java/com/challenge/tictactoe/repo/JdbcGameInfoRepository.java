@@ -0,0 +1,265 @@
+package com.challenge.tictactoe.repo;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+import com.challenge.tictactoe.repo.mapper.BitsCodec;
+import com.challenge.tictactoe.repo.mapper.GameStateMapper;
+import com.challenge.tictactoe.repo.mapper.IDMapper;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Games in the PostgreSQL game table, with finished games possibly moved to game_archive.
+ */
+@Repository
+@Profile("!reactive & !embedded")
+@Slf4j
+@Timed(value = "game.repository", histogram = true)
+@RequiredArgsConstructor
+public class JdbcGameInfoRepository implements GameInfoRepository {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String CREATE_SQL = ""
+            + "INSERT INTO game (id, board_rows, board_columns, win_length, mode, x_bits, o_bits, version, status) "
+            + "VALUES (:id, :rows, :columns, :winLength, :mode, :xBits, :oBits, :version, :status);";
+
+    private static final String UPDATE_SQL = ""
+            + "UPDATE game SET x_bits = :xBits, o_bits = :oBits, version = :version, status = :status, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE id = :id AND version = :expectedVersion AND status = 0;";
+
+    private static final String GET_BY_ID_SQL = "SELECT " + GameStateMapper.COLUMNS + " FROM game WHERE id = ?";
+
+    private static final String GET_ARCHIVED_BY_ID_SQL = ""
+            + "SELECT " + GameStateMapper.COLUMNS + " FROM game_archive WHERE id = ?";
+
+    private final IDMapper idMapper;
+    private final GameStateMapper rowMapper;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ReplicaRouting replicaRouting;
+
+    /**
+     * Returns up to {@code limit} ids in id order, starting after the given id (keyset pagination).
+     */
+    @Override
+    public UUID[] getAll(UUID after, int limit) {
+        var sql = after == null
+                ? "SELECT id FROM game ORDER BY id LIMIT :limit;"
+                : "SELECT id FROM game WHERE id > :after ORDER BY id LIMIT :limit;";
+
+        var map = new MapSqlParameterSource();
+        map.addValue("after", after);
+        map.addValue("limit", limit);
+
+        try {
+            return namedJdbcTemplate.query(sql, map, idMapper).toArray(new UUID[0]);
+        } catch (DataAccessException e) {
+            // Listing degrades to an empty page, count it so the failure does not go unnoticed
+            meterRegistry.counter("game.repository.errors", "method", "getAll").increment();
+            log.warn("Listing games failed", e);
+            return new UUID[0];
+        }
+    }
+
+    /**
+     * Streams every id after the given one through a server-side cursor, so memory use does not grow with
+     * the table. The read-only transaction is required for the driver to honour the fetch size.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(UUID after, Consumer<UUID> consumer) {
+        var sql = after == null
+                ? "SELECT id FROM game ORDER BY id"
+                : "SELECT id FROM game WHERE id > ? ORDER BY id";
+
+        namedJdbcTemplate.getJdbcTemplate().query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            if (after != null)
+                statement.setObject(1, after);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getObject(1, UUID.class)));
+    }
+
+    /**
+     * Finds the game in the game table, falling back to the archive for finished games moved there. This is
+     * the read behind every cache miss, so it binds the id by position instead of expanding named parameters
+     * and decodes the row straight into the game, with no list or row objects in between.
+     */
+    @Override
+    public GameState getById(UUID id) {
+        final JdbcTemplate jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        final PreparedStatementSetter idSetter = statement -> statement.setObject(1, id);
+        final ResultSetExtractor<GameState> singleRow = rowMapper;
+
+        final GameState state = jdbcTemplate.query(GET_BY_ID_SQL, idSetter, singleRow);
+        if (state != null)
+            return state;
+
+        return jdbcTemplate.query(GET_ARCHIVED_BY_ID_SQL, idSetter, singleRow);
+    }
+
+    /**
+     * Loads many games with one query, plus one on the archive for any not found; ids that do not exist are
+     * absent from the result.
+     */
+    @Override
+    public Map<UUID, GameState> getByIds(Collection<UUID> ids) {
+        final Map<UUID, GameState> states = new HashMap<>();
+        if (ids.isEmpty())
+            return states;
+
+        getByIds("game", ids, states);
+        if (states.size() < ids.size()) {
+            final List<UUID> missing = new ArrayList<>();
+            for (UUID id : ids) {
+                if (!states.containsKey(id))
+                    missing.add(id);
+            }
+            getByIds("game_archive", missing, states);
+        }
+
+        return states;
+    }
+
+    @Override
+    public void create(UUID id, GameState state) {
+        namedJdbcTemplate.update(CREATE_SQL, toCreateParameters(id, state));
+        replicaRouting.pin(id);
+    }
+
+    /**
+     * Writes the new board only if the stored game is still at {@code expectedVersion} and undecided,
+     * so the turn order and finished-game checks are enforced by the same statement.
+     *
+     * @return false when the row was changed or finished since it was read
+     */
+    @Override
+    public boolean update(UUID id, GameState state, int expectedVersion) {
+        // Pinned even on a conflict: the reload that follows must see the write that won
+        replicaRouting.pin(id);
+
+        return namedJdbcTemplate.update(UPDATE_SQL, toUpdateParameters(id, state, expectedVersion)) == 1;
+    }
+
+    /**
+     * Sends all creates and all conditional updates as one JDBC batch each, committed together.
+     *
+     * @return ids of games whose update matched no row because they changed since they were read
+     */
+    @Override
+    @Transactional
+    public Set<UUID> writeAll(List<GameWrite> writes) {
+        final List<SqlParameterSource> creates = new ArrayList<>();
+        final List<SqlParameterSource> updates = new ArrayList<>();
+        final List<UUID> updatedIds = new ArrayList<>();
+
+        for (GameWrite write : writes) {
+            replicaRouting.pin(write.getId());
+            if (write.isNewGame()) {
+                creates.add(toCreateParameters(write.getId(), write.getState()));
+            } else {
+                updates.add(toUpdateParameters(write.getId(), write.getState(), write.getExpectedVersion()));
+                updatedIds.add(write.getId());
+            }
+        }
+
+        if (!creates.isEmpty())
+            namedJdbcTemplate.batchUpdate(CREATE_SQL, creates.toArray(new SqlParameterSource[0]));
+
+        final Set<UUID> conflicts = new HashSet<>();
+        if (!updates.isEmpty()) {
+            final int[] counts = namedJdbcTemplate.batchUpdate(UPDATE_SQL, updates.toArray(new SqlParameterSource[0]));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0)
+                    conflicts.add(updatedIds.get(i));
+            }
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * Deletes the game wherever it is, live or archived.
+     */
+    @Override
+    @Transactional
+    public void deleteById(UUID id) {
+        var map = new MapSqlParameterSource();
+        map.addValue("id", id);
+        replicaRouting.pin(id);
+
+        if (namedJdbcTemplate.update("DELETE FROM game WHERE id = :id", map) == 0)
+            namedJdbcTemplate.update("DELETE FROM game_archive WHERE id = :id", map);
+    }
+
+    private void getByIds(String table, Collection<UUID> ids, Map<UUID, GameState> states) {
+        var sql = "SELECT " + GameStateMapper.COLUMNS + ", id FROM " + table + " WHERE id IN (:ids)";
+
+        var map = new MapSqlParameterSource();
+        map.addValue("ids", ids);
+
+        namedJdbcTemplate.query(sql, map, (RowCallbackHandler) rs -> states.put(
+                rs.getObject(GameStateMapper.NEXT_COLUMN, UUID.class), rowMapper.mapRow(rs, states.size())));
+    }
+
+    private MapSqlParameterSource toCreateParameters(UUID id, GameState state) {
+        final BitBoard board = state.getBoard();
+
+        var map = toParameters(id, state);
+        map.addValue("rows", board.getRows());
+        map.addValue("columns", board.getColumns());
+        map.addValue("winLength", board.getWinLength());
+        map.addValue("mode", state.getMode().name());
+
+        return map;
+    }
+
+    private MapSqlParameterSource toUpdateParameters(UUID id, GameState state, int expectedVersion) {
+        var map = toParameters(id, state);
+        map.addValue("expectedVersion", expectedVersion);
+
+        return map;
+    }
+
+    private MapSqlParameterSource toParameters(UUID id, GameState state) {
+        final BitBoard board = state.getBoard();
+
+        var map = new MapSqlParameterSource();
+        map.addValue("id", id);
+        map.addValue("xBits", BitsCodec.toBytes(board.getXBits(), board.getCells()));
+        map.addValue("oBits", BitsCodec.toBytes(board.getOBits(), board.getCells()));
+        map.addValue("version", state.getVersion());
+        map.addValue("status", state.getStatus().getCode());
+
+        return map;
+    }
+}
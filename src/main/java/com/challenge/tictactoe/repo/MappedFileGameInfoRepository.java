@@ -0,0 +1,432 @@
+package com.challenge.tictactoe.repo;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.model.GameWrite;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Games in one memory-mapped file, for single-node deployments without a database; selected with the
+ * {@code embedded} profile.
+ * <p>
+ * Every game occupies a fixed-size slot sized for the largest board, read and written in place with absolute
+ * buffer access, so nothing is serialized and the only copy is of the bitsets handed to the immutable board.
+ * Ids are mapped to slots by an in-memory index, sorted by id for listing and rebuilt by scanning the file at
+ * startup. Slots of deleted games are reused.
+ * <p>
+ * Changes to a mapped file survive the process dying but not the machine, so each is appended to a
+ * {@link GameJournal} first, and the journal is forced to disk before the change is acknowledged; writers
+ * finishing at the same time share one sync. Every {@code tictactoe.store.checkpoint-writes} changes the file
+ * is forced to disk and the journal segment it covers is deleted; whatever is left in the journal at startup
+ * is replayed over the file.
+ * <p>
+ * There is no archive: finished games stay until deleted by id.
+ */
+@Repository
+@Profile("embedded")
+@Slf4j
+@Timed(value = "game.repository", histogram = true)
+public class MappedFileGameInfoRepository implements GameInfoRepository, Closeable {
+
+    private static final int MAGIC = 0x54545447;
+
+    // File header: magic, slot size and the number of slots handed out so far
+    private static final int HEADER_BYTES = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_SLOT_BYTES = 4;
+    private static final int HEADER_SLOTS_USED = 8;
+
+    // Slot layout, longs 8-byte aligned
+    private static final int ID_MOST = 0;
+    private static final int ID_LEAST = 8;
+    private static final int VERSION = 16;
+    private static final int LIVE = 20;
+    private static final int ROWS = 21;
+    private static final int COLUMNS = 22;
+    private static final int WIN_LENGTH = 23;
+    private static final int MODE = 24;
+    private static final int STATUS = 25;
+    private static final int X_BITS = 32;
+    private static final int BITS_WORDS = (BitBoard.MAX_SIZE * BitBoard.MAX_SIZE + Long.SIZE - 1) / Long.SIZE;
+    private static final int O_BITS = X_BITS + BITS_WORDS * Long.BYTES;
+    static final int SLOT_BYTES = O_BITS + BITS_WORDS * Long.BYTES;
+
+    // Stored by ordinal, so new modes must be added last
+    private static final GameMode[] MODES = GameMode.values();
+
+    private final int maxGames;
+    private final int checkpointWrites;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final GameJournal journal;
+
+    private final NavigableMap<UUID, Integer> slots = new ConcurrentSkipListMap<>();
+
+    // Readers share the buffer; changes to it, the free slots and the journal take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotsUsed;
+    private int writesSinceCheckpoint;
+
+    public MappedFileGameInfoRepository(@Value("${tictactoe.store.dir:data}") String directory,
+            @Value("${tictactoe.store.max-games:1000000}") int maxGames,
+            @Value("${tictactoe.store.checkpoint-writes:10000}") int checkpointWrites) throws IOException {
+        if (maxGames < 1 || maxGames > (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES)
+            throw new IllegalArgumentException("Invalid tictactoe.store.max-games " + maxGames);
+
+        this.maxGames = maxGames;
+        this.checkpointWrites = checkpointWrites;
+
+        final Path root = Files.createDirectories(Paths.get(directory));
+        channel = FileChannel.open(root.resolve("games.dat"), READ, WRITE, CREATE);
+        // Mapping grows the file to full size, but slots never written take no disk space on most file systems
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) maxGames * SLOT_BYTES);
+
+        loadIndex();
+
+        journal = new GameJournal(root.resolve("journal"));
+        replay(journal.recover());
+        buffer.force();
+        journal.delete(journal.getRecoveredSegments());
+    }
+
+    @Override
+    public UUID[] getAll(UUID after, int limit) {
+        final Set<UUID> ids = after == null ? slots.keySet() : slots.tailMap(after, false).keySet();
+
+        return ids.stream().limit(limit).toArray(UUID[]::new);
+    }
+
+    /**
+     * Walks the index as it changes, so games created or deleted meanwhile may or may not be included.
+     */
+    @Override
+    public void streamAll(UUID after, Consumer<UUID> consumer) {
+        (after == null ? slots.keySet() : slots.tailMap(after, false).keySet()).forEach(consumer);
+    }
+
+    @Override
+    public GameState getById(UUID id) {
+        lock.readLock().lock();
+        try {
+            final Integer slot = slots.get(id);
+
+            return slot != null ? read(offset(slot)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<UUID, GameState> getByIds(Collection<UUID> ids) {
+        final Map<UUID, GameState> states = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (UUID id : ids) {
+                final Integer slot = slots.get(id);
+                if (slot != null)
+                    states.put(id, read(offset(slot)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return states;
+    }
+
+    @Override
+    public void create(UUID id, GameState state) {
+        writeAll(List.of(new GameWrite(id, state, GameWrite.NEW_GAME)));
+    }
+
+    @Override
+    public boolean update(UUID id, GameState state, int expectedVersion) {
+        return writeAll(List.of(new GameWrite(id, state, expectedVersion))).isEmpty();
+    }
+
+    /**
+     * Applies the writes under one lock and syncs the journal once they are all in. Room for every create is
+     * checked before anything is written, but a journal failure part way leaves the earlier writes applied.
+     */
+    @Override
+    public Set<UUID> writeAll(List<GameWrite> writes) {
+        final Set<UUID> conflicts = new HashSet<>();
+        long journaled = 0;
+        lock.writeLock().lock();
+        try {
+            final long creates = writes.stream().filter(GameWrite::isNewGame).count();
+            if (creates > freeSlots.size() + (maxGames - slotsUsed))
+                throw new IllegalStateException("Game store is full");
+
+            for (GameWrite write : writes) {
+                final UUID id = write.getId();
+                if (write.isNewGame()) {
+                    if (slots.containsKey(id))
+                        throw new DuplicateKeyException("Game " + id + " already exists");
+
+                    journaled = journal(write);
+                    insert(id, write.getState());
+                } else {
+                    final Integer slot = slots.get(id);
+                    if (slot == null || !isUpdatable(offset(slot), write.getExpectedVersion())) {
+                        conflicts.add(id);
+                        continue;
+                    }
+
+                    journaled = journal(write);
+                    writeState(offset(slot), write.getState());
+                }
+                writesSinceCheckpoint++;
+            }
+            checkpointIfDue();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(journaled);
+
+        return conflicts;
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        final long journaled;
+        lock.writeLock().lock();
+        try {
+            if (!slots.containsKey(id))
+                return;
+
+            try {
+                journaled = journal.appendDelete(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            remove(id);
+            writesSinceCheckpoint++;
+            checkpointIfDue();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(journaled);
+    }
+
+    /**
+     * Forces the file to disk and drops the journal it makes redundant.
+     */
+    public void checkpoint() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            journal.delete(List.of(journal.rotate()));
+            writesSinceCheckpoint = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!channel.isOpen())
+                return;
+
+            checkpoint();
+            journal.close();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void loadIndex() {
+        if (buffer.getInt(HEADER_MAGIC) == 0) {
+            buffer.putInt(HEADER_MAGIC, MAGIC);
+            buffer.putInt(HEADER_SLOT_BYTES, SLOT_BYTES);
+            buffer.putInt(HEADER_SLOTS_USED, 0);
+        } else if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_SLOT_BYTES) != SLOT_BYTES) {
+            throw new IllegalStateException("Not a game store, or one of another layout");
+        }
+
+        slotsUsed = buffer.getInt(HEADER_SLOTS_USED);
+        if (slotsUsed > maxGames)
+            throw new IllegalStateException("Game store holds more than tictactoe.store.max-games slots");
+
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            final int base = offset(slot);
+            if (buffer.get(base + LIVE) != 0)
+                slots.put(new UUID(buffer.getLong(base + ID_MOST), buffer.getLong(base + ID_LEAST)), slot);
+            else
+                freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * Brings the file up to date with the journal. A change may or may not have reached the file before it
+     * was journaled, so each is applied only if the file does not have it yet.
+     */
+    private void replay(List<GameWrite> writes) {
+        for (GameWrite write : writes) {
+            final Integer slot = slots.get(write.getId());
+            if (write.isDelete()) {
+                if (slot != null)
+                    remove(write.getId());
+            } else if (slot == null) {
+                // An update of a game not in the file was deleted later on
+                if (write.isNewGame())
+                    insert(write.getId(), write.getState());
+            } else if (buffer.getInt(offset(slot) + VERSION) < write.getState().getVersion()) {
+                writeState(offset(slot), write.getState());
+            }
+        }
+
+        if (!writes.isEmpty())
+            log.info("Replayed {} journaled game changes", writes.size());
+    }
+
+    private boolean isUpdatable(int base, int expectedVersion) {
+        return buffer.getInt(base + VERSION) == expectedVersion
+                && buffer.get(base + STATUS) == GameStatus.IN_PROGRESS.getCode();
+    }
+
+    private long journal(GameWrite write) {
+        try {
+            return journal.append(write);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for the journal to reach the disk outside the lock, so other writers can append meanwhile and
+     * share the next sync.
+     */
+    private void sync(long journaled) {
+        if (journaled == 0)
+            return;
+
+        try {
+            journal.sync(journaled);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkpointIfDue() {
+        if (writesSinceCheckpoint >= checkpointWrites)
+            checkpoint();
+    }
+
+    /**
+     * Claims a slot and fills it; the slot is marked live last, so a slot cut short by a crash reads as free.
+     */
+    private void insert(UUID id, GameState state) {
+        final int slot;
+        if (freeSlots.isEmpty()) {
+            slot = slotsUsed++;
+            buffer.putInt(HEADER_SLOTS_USED, slotsUsed);
+        } else {
+            slot = freeSlots.pop();
+        }
+
+        final BitBoard board = state.getBoard();
+        final int base = offset(slot);
+        buffer.putLong(base + ID_MOST, id.getMostSignificantBits());
+        buffer.putLong(base + ID_LEAST, id.getLeastSignificantBits());
+        buffer.put(base + ROWS, (byte) board.getRows());
+        buffer.put(base + COLUMNS, (byte) board.getColumns());
+        buffer.put(base + WIN_LENGTH, (byte) board.getWinLength());
+        buffer.put(base + MODE, (byte) state.getMode().ordinal());
+        writeState(base, state);
+        buffer.put(base + LIVE, (byte) 1);
+
+        slots.put(id, slot);
+    }
+
+    /**
+     * Writes the version last, so a write cut short by a crash leaves the old version and is replayed.
+     */
+    private void writeState(int base, GameState state) {
+        final BitBoard board = state.getBoard();
+        writeBits(base + X_BITS, board.getXBits());
+        writeBits(base + O_BITS, board.getOBits());
+        buffer.put(base + STATUS, (byte) state.getStatus().getCode());
+        buffer.putInt(base + VERSION, state.getVersion());
+    }
+
+    private void remove(UUID id) {
+        final int slot = slots.remove(id);
+        buffer.put(offset(slot) + LIVE, (byte) 0);
+        freeSlots.push(slot);
+    }
+
+    private GameState read(int base) {
+        final int rows = buffer.get(base + ROWS);
+        final int columns = buffer.get(base + COLUMNS);
+        final int words = (rows * columns + Long.SIZE - 1) / Long.SIZE;
+
+        final BitBoard board = BitBoard.fromBits(rows, columns, buffer.get(base + WIN_LENGTH),
+                readBits(base + X_BITS, words),
+                readBits(base + O_BITS, words),
+                GameStatus.fromCode(buffer.get(base + STATUS)).getWinner());
+
+        return new GameState(board, MODES[buffer.get(base + MODE)]);
+    }
+
+    private long[] readBits(int offset, int words) {
+        final long[] bits = new long[words];
+        for (int i = 0; i < words; i++)
+            bits[i] = buffer.getLong(offset + i * Long.BYTES);
+
+        return bits;
+    }
+
+    private void writeBits(int offset, long[] bits) {
+        for (int i = 0; i < bits.length; i++)
+            buffer.putLong(offset + i * Long.BYTES, bits[i]);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,100 @@
+package com.challenge.tictactoe.repo;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which reads may go to a replica. Callers mark the reads behind GET endpoints with
+ * {@link #fromReplica}; everything else, writes and the reads a write depends on, stays on the primary.
+ * <p>
+ * A game written by this node is pinned to the primary for {@code tictactoe.replicas.pin-duration}, so a
+ * client reading its own move right after making it does not get an older board from a replica that has not
+ * caught up. Pins are per node: a read served by another node may still lag by up to the replication delay.
+ */
+@Component
+@Profile("!reactive")
+public class ReplicaRouting {
+
+    private static final int PURGE_EVERY_PINS = 1024;
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final long pinNanos;
+    private final ConcurrentHashMap<UUID, Long> pins = new ConcurrentHashMap<>();
+    private final AtomicInteger pinCount = new AtomicInteger();
+
+    public ReplicaRouting(@Value("${tictactoe.replicas.urls:}") String[] replicaUrls,
+            @Value("${tictactoe.replicas.pin-duration:PT5S}") Duration pinDuration) {
+        this.enabled = replicaUrls.length > 0;
+        this.pinNanos = pinDuration.toNanos();
+    }
+
+    /**
+     * A read that the replicas can serve.
+     */
+    @FunctionalInterface
+    public interface Read<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    /**
+     * Runs the read against a replica. Callers check {@link #isPinned} first for reads of a single game.
+     */
+    public <T, E extends Exception> T fromReplica(Read<T, E> read) throws E {
+        if (!isEnabled() || REPLICA_READ.get() != null)
+            return read.get();
+
+        REPLICA_READ.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            REPLICA_READ.remove();
+        }
+    }
+
+    /**
+     * Whether the connection being opened on this thread may come from a replica.
+     */
+    public boolean isReplicaRead() {
+        return REPLICA_READ.get() != null;
+    }
+
+    /**
+     * Sends reads of the game to the primary until the replicas can be expected to have its latest write.
+     */
+    public void pin(UUID id) {
+        if (!isEnabled())
+            return;
+
+        final long now = System.nanoTime();
+        pins.put(id, now + pinNanos);
+
+        // Drop expired pins now and then, so the map only holds games written in the last pin duration
+        if (pinCount.incrementAndGet() % PURGE_EVERY_PINS == 0)
+            pins.values().removeIf(expiry -> expiry - now < 0);
+    }
+
+    public boolean isPinned(UUID id) {
+        final Long expiry = pins.get(id);
+        if (expiry == null)
+            return false;
+
+        if (expiry - System.nanoTime() < 0) {
+            pins.remove(id, expiry);
+            return false;
+        }
+
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
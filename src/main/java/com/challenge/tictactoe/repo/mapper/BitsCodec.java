@@ -0,0 +1,29 @@
+package com.challenge.tictactoe.repo.mapper;
+
+/**
+ * Packs board bitsets into the smallest byte array that holds every cell, cell 0 in the lowest bit of
+ * byte 0. A classic 3x3 board takes two bytes per symbol.
+ */
+public final class BitsCodec {
+
+    private BitsCodec() {
+    }
+
+    public static byte[] toBytes(long[] bits, int cells) {
+        final byte[] bytes = new byte[(cells + Byte.SIZE - 1) / Byte.SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (bits[i >>> 3] >>> ((i & 7) << 3));
+        }
+
+        return bytes;
+    }
+
+    public static long[] fromBytes(byte[] bytes, int cells) {
+        final long[] bits = new long[(cells + Long.SIZE - 1) / Long.SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bits[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+        }
+
+        return bits;
+    }
+}
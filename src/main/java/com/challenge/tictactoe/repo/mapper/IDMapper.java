@@ -15,6 +15,6 @@ public class IDMapper implements RowMapper<UUID> {
 
     @Override
     public UUID mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return UUID.fromString(rs.getString("id"));
+        return rs.getObject("id", UUID.class);
     }
 }
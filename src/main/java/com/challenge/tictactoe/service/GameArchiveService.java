@@ -0,0 +1,156 @@
+package com.challenge.tictactoe.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.challenge.tictactoe.model.GameFilter;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.repo.GameArchiveRepository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the game table down to the games being played.
+ * <p>
+ * A periodic sweep moves games that finished more than {@code tictactoe.sweeper.archive-after} ago into the
+ * archive, where they stay readable by id but are no longer listed, and deletes unfinished games that have
+ * not seen a move for {@code tictactoe.sweeper.abandoned-after}. Both, like the bulk delete, work in batches
+ * of {@code tictactoe.sweeper.batch-size} games, one short transaction each, and stop after
+ * {@code tictactoe.sweeper.max-batches} so one run cannot monopolize the database; the next run picks up
+ * the rest.
+ * <p>
+ * Every batch first waits for the write-behind to commit what it holds, so a queued create or move cannot
+ * reach the database after its game was deleted or archived and bring it back.
+ */
+@Service
+@Profile("!reactive & !embedded")
+@Slf4j
+@Timed(value = "game.service", histogram = true)
+public class GameArchiveService {
+
+    private final GameArchiveRepository gameArchiveRepository;
+    private final GameStateCache gameStateCache;
+    private final GameSubscriptions gameSubscriptions;
+    private final GameStats gameStats;
+    private final GameWriteBehind gameWriteBehind;
+    private final Duration archiveAfter;
+    private final Duration abandonedAfter;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Clock clock;
+
+    // Month whose archive partition is known to exist
+    private YearMonth partitionMonth;
+
+    @Autowired
+    public GameArchiveService(GameArchiveRepository gameArchiveRepository, GameStateCache gameStateCache,
+            GameSubscriptions gameSubscriptions, GameStats gameStats, GameWriteBehind gameWriteBehind,
+            @Value("${tictactoe.sweeper.archive-after:PT1H}") Duration archiveAfter,
+            @Value("${tictactoe.sweeper.abandoned-after:P7D}") Duration abandonedAfter,
+            @Value("${tictactoe.sweeper.batch-size:500}") int batchSize,
+            @Value("${tictactoe.sweeper.max-batches:100}") int maxBatches) {
+        this(gameArchiveRepository, gameStateCache, gameSubscriptions, gameStats, gameWriteBehind, archiveAfter,
+                abandonedAfter, batchSize, maxBatches, Clock.systemUTC());
+    }
+
+    GameArchiveService(GameArchiveRepository gameArchiveRepository, GameStateCache gameStateCache,
+            GameSubscriptions gameSubscriptions, GameStats gameStats, GameWriteBehind gameWriteBehind,
+            Duration archiveAfter, Duration abandonedAfter, int batchSize, int maxBatches, Clock clock) {
+        this.gameArchiveRepository = gameArchiveRepository;
+        this.gameStateCache = gameStateCache;
+        this.gameSubscriptions = gameSubscriptions;
+        this.gameStats = gameStats;
+        this.gameWriteBehind = gameWriteBehind;
+        this.archiveAfter = archiveAfter;
+        this.abandonedAfter = abandonedAfter;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "${tictactoe.sweeper.interval:PT1M}",
+            fixedDelayString = "${tictactoe.sweeper.interval:PT1M}")
+    public void sweep() {
+        final int archived = archiveFinished();
+        final int expired = expireAbandoned();
+        if (archived > 0 || expired > 0)
+            log.info("Archived {} finished games and expired {} abandoned ones", archived, expired);
+    }
+
+    /**
+     * @return number of games moved to the archive
+     */
+    public int archiveFinished() {
+        final Instant now = clock.instant();
+        final YearMonth month = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+        if (!month.equals(partitionMonth)) {
+            gameArchiveRepository.createArchivePartition(month);
+            partitionMonth = month;
+        }
+
+        int archived = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            gameWriteBehind.flush();
+            final int moved = gameArchiveRepository.archiveFinished(now.minus(archiveAfter), now, batchSize);
+            archived += moved;
+            if (moved < batchSize)
+                break;
+        }
+
+        return archived;
+    }
+
+    /**
+     * @return number of unfinished games deleted for inactivity
+     */
+    public int expireAbandoned() {
+        return delete(new GameFilter(GameStatus.IN_PROGRESS, null, clock.instant().minus(abandonedAfter)));
+    }
+
+    /**
+     * Deletes live and archived games matching the filter, up to {@code batch-size * max-batches} of them
+     * per call; a caller getting that many back should call again.
+     *
+     * @return number of games deleted
+     */
+    public int deleteMatching(GameFilter filter) throws InvalidAttributeValueException {
+        if (filter.isEmpty())
+            throw new InvalidAttributeValueException("Invalid filter");
+
+        return delete(filter);
+    }
+
+    private int delete(GameFilter filter) {
+        int deleted = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            gameWriteBehind.flush();
+            final List<UUID> ids = gameArchiveRepository.deleteMatching(filter, batchSize);
+            for (UUID id : ids) {
+                gameStateCache.invalidate(id);
+                gameSubscriptions.close(id);
+            }
+            deleted += ids.size();
+            if (ids.size() < batchSize)
+                break;
+        }
+        // Without a status filter the deleted games may or may not have been finished
+        if (filter.getStatus() == GameStatus.IN_PROGRESS)
+            gameStats.recordAbandoned(deleted);
+
+        return deleted;
+    }
+}
@@ -0,0 +1,234 @@
+package com.challenge.tictactoe.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.challenge.tictactoe.api.request.BatchItemRequest;
+import com.challenge.tictactoe.api.response.BatchItemResponse;
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.exception.GameBusyException;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+import com.challenge.tictactoe.repo.GameInfoRepository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies many creations and moves across many games in one request. The moves on one game run as one
+ * command of the game, against its latest state including writes not flushed yet, and collapse into one
+ * write of its final state. With write-behind these writes are queued like single moves and share its
+ * flushes; without it every touched game is persisted afterwards with one JDBC batch per statement type, and
+ * a game moved in between fails its conditional update. Each item gets its own result.
+ */
+@Service
+@Profile("!reactive")
+@Timed(value = "game.service", histogram = true)
+@RequiredArgsConstructor
+public class GameBatchService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final GameInfoRepository gameInfoRepository;
+    private final GameRules gameRules;
+    private final GameStateCache gameStateCache;
+    private final GameShards gameShards;
+    private final GameSubscriptions gameSubscriptions;
+    private final GameMetrics gameMetrics;
+    private final GameWriteBehind gameWriteBehind;
+    private final GameStats gameStats;
+
+    public List<BatchItemResponse> play(List<BatchItemRequest> items) throws InvalidAttributeValueException {
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE)
+            throw new InvalidAttributeValueException("Invalid batch size");
+
+        final UUID[] gameIds = new UUID[items.size()];
+        final BatchItemResponse[] results = new BatchItemResponse[items.size()];
+        final Map<UUID, List<Integer>> moves = new LinkedHashMap<>();
+        final List<GameWrite> writes = new ArrayList<>();
+        final Map<UUID, CompletableFuture<Void>> queued = new LinkedHashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            final BatchItemRequest item = items.get(i);
+            if (item.getId() != null) {
+                moves.computeIfAbsent(item.getId(), id -> new ArrayList<>()).add(i);
+                continue;
+            }
+
+            try {
+                final UUID id = UUID.randomUUID();
+                final GameState state = gameRules.newGame(item);
+                write(new GameWrite(id, state, GameWrite.NEW_GAME), writes, queued);
+                gameIds[i] = id;
+                results[i] = success(HttpStatus.CREATED, id, state);
+            } catch (InvalidAttributeValueException e) {
+                results[i] = failure(HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (GameBusyException e) {
+                results[i] = failure(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+            }
+        }
+
+        final Map<UUID, GameState> loaded = loadStates(moves.keySet());
+        for (Map.Entry<UUID, List<Integer>> game : moves.entrySet()) {
+            final UUID id = game.getKey();
+            try {
+                gameShards.execute(id, () -> {
+                    playMoves(id, game.getValue(), items, loaded.get(id), gameIds, results, writes, queued);
+                    return null;
+                });
+            } catch (GameBusyException e) {
+                for (int i : game.getValue()) {
+                    gameIds[i] = null;
+                    results[i] = failure(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+                }
+            }
+        }
+
+        final Set<UUID> conflicts = gameWriteBehind.isEnabled() ? awaitQueued(queued) : writeAll(writes);
+        for (int i = 0; i < results.length; i++) {
+            if (gameIds[i] != null && conflicts.contains(gameIds[i]))
+                results[i] = failure(HttpStatus.CONFLICT, GameConflictException.MESSAGE);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies the game's moves in the order of the batch and writes its final state, as a command of the game.
+     * The game is served from writes not flushed yet and the cache first, like a single move, and only
+     * otherwise from the state loaded for the batch or, failing that, from the database.
+     */
+    private void playMoves(UUID id, List<Integer> positions, List<BatchItemRequest> items, GameState loaded,
+            UUID[] gameIds, BatchItemResponse[] results, List<GameWrite> writes,
+            Map<UUID, CompletableFuture<Void>> queued) {
+        GameState state = gameWriteBehind.getPending(id);
+        if (state == null)
+            state = gameStateCache.get(id);
+        if (state == null)
+            state = loaded;
+        // Cached when the batch was loaded, but evicted since
+        if (state == null)
+            state = gameInfoRepository.getById(id);
+        if (state == null) {
+            for (int i : positions)
+                results[i] = failure(HttpStatus.NOT_FOUND, "Game ID not found");
+            return;
+        }
+
+        GameState newState = state;
+        for (int i : positions) {
+            try {
+                newState = gameRules.play(newState, items.get(i));
+                gameIds[i] = id;
+                results[i] = success(HttpStatus.OK, id, newState);
+            } catch (InvalidAttributeValueException e) {
+                results[i] = failure(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        // Several moves on one game collapse into a single conditional update of its final state
+        if (newState != state)
+            write(new GameWrite(id, newState, state.getVersion()), writes, queued);
+    }
+
+    /**
+     * Queues the write with write-behind, or keeps it for the JDBC batch otherwise.
+     */
+    private void write(GameWrite write, List<GameWrite> writes, Map<UUID, CompletableFuture<Void>> queued) {
+        if (!gameWriteBehind.isEnabled()) {
+            writes.add(write);
+            return;
+        }
+
+        final UUID id = write.getId();
+        queued.put(id, gameWriteBehind.submit(write)
+                .whenComplete((v, e) -> {
+                    if (e != null)
+                        gameStateCache.invalidate(id);
+                })
+                .thenRun(() -> committed(write)));
+    }
+
+    /**
+     * @return ids of the games whose queued write conflicted
+     */
+    private Set<UUID> awaitQueued(Map<UUID, CompletableFuture<Void>> queued) {
+        final Set<UUID> conflicts = new LinkedHashSet<>();
+        queued.forEach((id, written) -> {
+            try {
+                written.join();
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof GameConflictException))
+                    throw e;
+                conflicts.add(id);
+            }
+        });
+
+        return conflicts;
+    }
+
+    /**
+     * @return ids of the games whose update conflicted
+     */
+    private Set<UUID> writeAll(List<GameWrite> writes) {
+        final Set<UUID> conflicts = gameInfoRepository.writeAll(writes);
+        for (GameWrite write : writes) {
+            if (conflicts.contains(write.getId()))
+                gameStateCache.invalidate(write.getId());
+            else
+                committed(write);
+        }
+
+        return conflicts;
+    }
+
+    private void committed(GameWrite write) {
+        final UUID id = write.getId();
+        gameStateCache.put(id, write.getState());
+        gameMetrics.recordCommitted(write.getState());
+        if (write.isNewGame()) {
+            gameStats.recordCreated(write.getState());
+        } else {
+            if (!gameWriteBehind.isEnabled())
+                gameStats.recordCommitted(write.getState());
+            gameSubscriptions.publish(id, GameResponse.of(id, write.getState().getBoard()));
+        }
+    }
+
+    /**
+     * Loads the games that have neither a write waiting nor a cached state with one query.
+     */
+    private Map<UUID, GameState> loadStates(Collection<UUID> ids) {
+        final Set<UUID> misses = new LinkedHashSet<>();
+        for (UUID id : ids) {
+            if (gameWriteBehind.getPending(id) == null && gameStateCache.get(id) == null)
+                misses.add(id);
+        }
+
+        return gameInfoRepository.getByIds(misses);
+    }
+
+    private BatchItemResponse success(HttpStatus status, UUID id, GameState state) {
+        return new BatchItemResponse(status.value(), GameResponse.of(id, state.getBoard()), null);
+    }
+
+    private BatchItemResponse failure(HttpStatus status, String errorMessage) {
+        return new BatchItemResponse(status.value(), null, errorMessage);
+    }
+}
@@ -0,0 +1,28 @@
+package com.challenge.tictactoe.service;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed set of locks striped by game id. Serializes commands on the same game within this node, so a
+ * second concurrent move is validated against the first one's result instead of racing it to the database.
+ */
+@Component
+public class GameLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public GameLocks(@Value("${tictactoe.locks.stripes:256}") int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock lockFor(UUID id) {
+        return stripes[(id.hashCode() & 0x7fffffff) % stripes.length];
+    }
+}
@@ -0,0 +1,41 @@
+package com.challenge.tictactoe.service;
+
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Game level counters: how committed games end and why moves are turned down.
+ */
+@Component
+public class GameMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter[] outcomes = new Counter[GameStatus.values().length];
+
+    public GameMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (GameStatus status : GameStatus.values()) {
+            outcomes[status.ordinal()] = Counter.builder("game.outcomes")
+                    .tag("outcome", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Counts the outcome of a state that was just committed, if the move finished the game.
+     */
+    public void recordCommitted(GameState state) {
+        final GameStatus status = state.getStatus();
+        if (status != GameStatus.IN_PROGRESS)
+            outcomes[status.ordinal()].increment();
+    }
+
+    public void recordRejected(String reason) {
+        meterRegistry.counter("game.moves.rejected", "reason", reason).increment();
+    }
+}
@@ -0,0 +1,99 @@
+package com.challenge.tictactoe.service;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.api.request.GameRequest;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.engine.PerfectPlayTable;
+import com.challenge.tictactoe.exception.InvalidMoveException;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameSettings;
+import com.challenge.tictactoe.model.GameState;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory game rules: validates requests against a board and produces the next state without any I/O.
+ */
+@Component
+@Timed(value = "game.rules", histogram = true)
+@RequiredArgsConstructor
+public class GameRules {
+
+    private final PerfectPlayTable perfectPlayTable;
+    private final GameMetrics gameMetrics;
+
+    public GameState newGame(GameRequest request) throws InvalidAttributeValueException {
+        if (!"X".equals(request.getSymbol()))
+            throw reject(InvalidMoveException.INVALID_SYMBOL);
+
+        final GameSettings settings = toSettings(request);
+        if (!BitBoard.isValidSize(settings.getRows(), settings.getColumns(), settings.getWinLength()))
+            throw reject(InvalidMoveException.INVALID_BOARD_SIZE);
+
+        if (settings.getMode() == GameMode.SINGLE_PLAYER
+                && !PerfectPlayTable.supports(settings.getRows(), settings.getColumns(), settings.getWinLength()))
+            throw reject(InvalidMoveException.INVALID_GAME_MODE);
+
+        if (!isInBounds(settings, request))
+            throw reject(InvalidMoveException.INVALID_CELL);
+
+        final BitBoard board = BitBoard.empty(settings.getRows(), settings.getColumns(), settings.getWinLength())
+                .play(request.getX(), request.getY(), request.getSymbol());
+
+        return new GameState(replyIfSinglePlayer(board, settings.getMode()), settings.getMode());
+    }
+
+    public GameState play(GameState state, GameRequest request) throws InvalidAttributeValueException {
+        final BitBoard board = state.getBoard();
+        if (board.winner() != null)
+            throw reject(InvalidMoveException.GAME_OVER);
+
+        if (!board.nextSymbol().equals(request.getSymbol()))
+            throw reject(InvalidMoveException.INVALID_SYMBOL);
+
+        if (!board.isInBounds(request.getX(), request.getY()) || board.isOccupied(request.getX(), request.getY()))
+            throw reject(InvalidMoveException.INVALID_CELL);
+
+        final BitBoard played = board.play(request.getX(), request.getY(), request.getSymbol());
+
+        return new GameState(replyIfSinglePlayer(played, state.getMode()), state.getMode());
+    }
+
+    /**
+     * Plays the server's O move after a human X move in single player games.
+     */
+    private BitBoard replyIfSinglePlayer(BitBoard board, GameMode mode) {
+        if (mode != GameMode.SINGLE_PLAYER || board.winner() != null || board.isFull())
+            return board;
+
+        final int cell = perfectPlayTable.bestMove(board);
+
+        return board.play(cell / board.getColumns(), cell % board.getColumns(), BitBoard.O);
+    }
+
+    private InvalidMoveException reject(InvalidMoveException rejection) {
+        gameMetrics.recordRejected(rejection.getReason());
+        return rejection;
+    }
+
+    private GameSettings toSettings(GameRequest request) {
+        return new GameSettings(
+                valueOrDefault(request.getRows()),
+                valueOrDefault(request.getColumns()),
+                valueOrDefault(request.getWinLength()),
+                request.getMode() != null ? request.getMode() : GameMode.TWO_PLAYER);
+    }
+
+    private int valueOrDefault(Integer value) {
+        return value != null ? value : BitBoard.DEFAULT_SIZE;
+    }
+
+    private boolean isInBounds(GameSettings settings, GameRequest request) {
+        return request.getX() >= 0 && request.getX() < settings.getRows()
+                && request.getY() >= 0 && request.getY() < settings.getColumns();
+    }
+}
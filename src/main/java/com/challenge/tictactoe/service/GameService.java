@@ -1,132 +1,228 @@
 package com.challenge.tictactoe.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.management.InvalidAttributeValueException;
 import javax.naming.NameNotFoundException;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.challenge.tictactoe.api.request.GameRequest;
 import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.exception.GameNotFoundException;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.model.GameWrite;
 import com.challenge.tictactoe.repo.GameInfoRepository;
-import com.challenge.tictactoe.repo.entity.GameInfo;
+import com.challenge.tictactoe.repo.ReplicaRouting;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 
 @Service
+@Profile("!reactive")
+@Timed(value = "game.service", histogram = true)
 @RequiredArgsConstructor
 public class GameService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final GameInfoRepository gameInfoRepository;
+    private final GameRules gameRules;
+    private final GameStateCache gameStateCache;
+    private final GameShards gameShards;
+    private final GameSubscriptions gameSubscriptions;
+    private final GameMetrics gameMetrics;
+    private final GameWriteBehind gameWriteBehind;
+    private final GameStats gameStats;
+    private final ReplicaRouting replicaRouting;
+
+    public UUID[] getAll(UUID after, int limit) throws InvalidAttributeValueException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new InvalidAttributeValueException("Invalid limit");
+
+        return replicaRouting.fromReplica(() -> gameInfoRepository.getAll(after, limit));
+    }
 
-    public UUID[] getAll() {
-        return gameInfoRepository.getAll();
+    /**
+     * Writes every game id after {@code after} to the stream as newline-delimited JSON, one quoted id per line,
+     * as rows arrive from the database.
+     */
+    public void streamAll(UUID after, OutputStream outputStream) {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+        replicaRouting.fromReplica(() -> {
+            gameInfoRepository.streamAll(after, id -> {
+                try {
+                    writer.write('"');
+                    writer.write(id.toString());
+                    writer.write("\"\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return null;
+        });
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
+    /**
+     * Reads the game from a replica on a cache miss, unless this node wrote it within the pin duration.
+     */
     public GameResponse getById(UUID id) throws NameNotFoundException {
-        final GameInfo[] gameInfoArray = gameInfoRepository.getById(id);
-        if (gameInfoArray.length == 0)
-            throw new NameNotFoundException();
-
-        return buildGameResponse(gameInfoArray, id);
+        return GameResponse.of(id, loadState(id, true).getBoard());
     }
 
     public GameResponse createGame(GameRequest request) throws InvalidAttributeValueException {
-        if (!"X".equals(request.getSymbol()))
-            throw new InvalidAttributeValueException("Invalid symbol");
-
         final UUID id = UUID.randomUUID();
-        final GameInfo[] gameInfo = gameInfoRepository.playTurn(id, request);
+        final GameState state = gameRules.newGame(request);
+
+        return await(gameShards.execute(id, () -> write(new GameWrite(id, state, GameWrite.NEW_GAME))
+                .thenApply(v -> {
+                    gameStateCache.put(id, state);
+                    gameStats.recordCreated(state);
 
-        return buildGameResponse(gameInfo, id);
+                    return GameResponse.of(id, state.getBoard());
+                })));
     }
 
+    /**
+     * Plays the move as a command of the game. With write-behind the command only queues the write, so the
+     * game's next move need not wait for this one's commit; the caller still waits for it outside the command
+     * unless durability is ENQUEUE. The cache, metrics and subscribers only see the move once the write is
+     * done; with write-behind the statistics count it when the flusher commits it.
+     */
     public GameResponse playTurn(UUID id, GameRequest request)
-            throws NameNotFoundException, InvalidAttributeValueException {
-        final GameInfo[] gameInfoArray = gameInfoRepository.getById(id);
-        if (gameInfoArray.length == 0)
-            throw new NameNotFoundException();
-
-        final GameResponse oldGameResponse = buildGameResponse(gameInfoArray, id);
-        if (oldGameResponse.getWinner() != null)
-            throw new InvalidAttributeValueException("Game winner has already been decided");
-
-        if (!oldGameResponse.getNextSymbol().equals(request.getSymbol()))
-            throw new InvalidAttributeValueException("Invalid symbol");
+            throws NameNotFoundException, InvalidAttributeValueException, GameConflictException {
+        return await(gameShards.execute(id, () -> {
+            final GameState state = loadState(id);
+            final GameState newState = gameRules.play(state, request);
+
+            final CompletableFuture<Void> written;
+            if (gameWriteBehind.isEnabled()) {
+                written = gameWriteBehind.submit(new GameWrite(id, newState, state.getVersion()));
+            } else if (gameInfoRepository.update(id, newState, state.getVersion())) {
+                written = CompletableFuture.completedFuture(null);
+            } else {
+                // Another node wrote first, reload the game on the next access
+                gameStateCache.invalidate(id);
+                throw new GameConflictException();
+            }
 
-        return buildGameResponse(gameInfoRepository.playTurn(id, request), id);
+            return written
+                    .whenComplete((v, e) -> {
+                        if (e != null)
+                            gameStateCache.invalidate(id);
+                    })
+                    .thenApply(v -> {
+                        gameStateCache.put(id, newState);
+                        gameMetrics.recordCommitted(newState);
+                        if (!gameWriteBehind.isEnabled())
+                            gameStats.recordCommitted(newState);
+
+                        final GameResponse response = GameResponse.of(id, newState.getBoard());
+                        gameSubscriptions.publish(id, response);
+
+                        return response;
+                    });
+        }));
     }
 
     public void deleteById(UUID id) throws NameNotFoundException {
-        if (gameInfoRepository.getById(id).length == 0)
-            throw new NameNotFoundException();
-        gameInfoRepository.deleteById(id);
+        gameShards.execute(id, () -> {
+            final GameState state = loadState(id);
+            // A queued create must not reach the database after the delete
+            gameWriteBehind.flush();
+            gameInfoRepository.deleteById(id);
+            gameStateCache.invalidate(id);
+            gameSubscriptions.close(id);
+            if (state.getStatus() == GameStatus.IN_PROGRESS)
+                gameStats.recordAbandoned(1);
+
+            return null;
+        });
     }
 
-    private String checkWinner(String[][] matrix) {
-        for (int i = 0; i < 3; i++) {
-            final String xSymbol = matrix[i][0]; // Check horizontal lines for winner
-            if (isNotNullAndEquals(xSymbol, matrix[i][1]) && isNotNullAndEquals(xSymbol, matrix[i][2])) {
-
-                return xSymbol;
-            }
+    /**
+     * Registers the listener for the game's moves. Runs as a command of the game, so no move can commit
+     * between reading the current board and subscribing.
+     *
+     * @return action that removes the listener again
+     */
+    public Runnable subscribe(UUID id, GameSubscriptions.Listener listener) throws NameNotFoundException {
+        return gameShards.execute(id,
+                () -> gameSubscriptions.subscribe(id, GameResponse.of(id, loadState(id).getBoard()), listener));
+    }
 
-            final String ySymbol = matrix[0][i]; // Check vertical lines for winner
-            if (isNotNullAndEquals(ySymbol, matrix[1][i]) && isNotNullAndEquals(ySymbol, matrix[2][i])) {
+    private CompletableFuture<Void> write(GameWrite write) {
+        if (gameWriteBehind.isEnabled())
+            return gameWriteBehind.submit(write);
 
-                return ySymbol;
-            }
-        }
+        gameInfoRepository.create(write.getId(), write.getState());
 
-        // Check diagonal lines for winner
-        final String topLeftSymbol = matrix[0][0];
-        if (isNotNullAndEquals(topLeftSymbol, matrix[1][1]) && isNotNullAndEquals(topLeftSymbol, matrix[2][2]))
-            return topLeftSymbol;
-
-        final String topRightSymbol = matrix[0][2];
-        if (isNotNullAndEquals(topRightSymbol, matrix[1][1]) && isNotNullAndEquals(topRightSymbol, matrix[2][0]))
-            return topRightSymbol;
+        return CompletableFuture.completedFuture(null);
+    }
 
-        return null;
+    private GameState loadState(UUID id) throws NameNotFoundException {
+        return loadState(id, false);
     }
 
-    private String nextSymbol(String[][] matrix) {
-        int x = 0;
-        int o = 0;
-
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                final String symbol = matrix[i][j];
-                if (isNotNullAndEquals(symbol, "X"))
-                    x++;
-                else if (isNotNullAndEquals(symbol, "O"))
-                    o++;
-            }
+    /**
+     * Serves the game from writes not flushed yet, then from the cache, loading and caching it from the
+     * database otherwise. Queued states are never cached, since their write may still fail; the cache catches
+     * up when the write completes. With {@code replicaAllowed} the database read may go to a replica; what it
+     * returns is not cached either, since moves are validated against the cache and a replica may lag behind.
+     * A game the replica does not have yet is read from the primary.
+     */
+    private GameState loadState(UUID id, boolean replicaAllowed) throws NameNotFoundException {
+        final GameState pending = gameWriteBehind.getPending(id);
+        if (pending != null)
+            return pending;
+
+        final GameState cached = gameStateCache.get(id);
+        if (cached != null)
+            return cached;
+
+        if (replicaAllowed && replicaRouting.isEnabled() && !replicaRouting.isPinned(id)) {
+            final GameState replicated = replicaRouting.fromReplica(() -> gameInfoRepository.getById(id));
+            if (replicated != null)
+                return replicated;
         }
 
-        if (x > o)
-            return "O";
+        final GameState state = gameInfoRepository.getById(id);
+        if (state == null)
+            throw GameNotFoundException.INSTANCE;
 
-        return "X";
-    }
+        gameStateCache.put(id, state);
 
-    private boolean isNotNullAndEquals(String v1, String v2) {
-        return v1 != null && v2 != null && v1.equals(v2);
+        return state;
     }
 
-    private GameResponse buildGameResponse(GameInfo[] gameInfoArray, UUID id) {
-        String[][] matrix = new String[3][3];
-
-        for (GameInfo info : gameInfoArray) {
-            matrix[info.getX()][info.getY()] = info.getSymbol();
+    /**
+     * Waits for the write, rethrowing the exception it failed with.
+     */
+    @SneakyThrows
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
         }
-
-        final String winner = checkWinner(matrix);
-
-        if (winner != null)
-            return new GameResponse(id, winner, null, matrix);
-        else
-            return new GameResponse(id, null, nextSymbol(matrix), matrix);
     }
 }
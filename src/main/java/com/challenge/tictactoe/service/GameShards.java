@@ -0,0 +1,119 @@
+package com.challenge.tictactoe.service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.exception.GameBusyException;
+
+import lombok.SneakyThrows;
+
+/**
+ * Runs game commands so that commands on the same game never overlap.
+ * <p>
+ * With {@code tictactoe.shards.count} above zero every game id is owned by one single-threaded shard
+ * executor with a bounded queue; a command for a game whose shard queue is full is rejected with
+ * {@link GameBusyException} instead of waiting. With no shards commands run on the calling thread under
+ * the game's {@link GameLocks} stripe.
+ */
+@Component
+public class GameShards {
+
+    private final ThreadPoolExecutor[] shards;
+    private final GameLocks gameLocks;
+
+    private final LongAdder rejections = new LongAdder();
+
+    public GameShards(@Value("${tictactoe.shards.count:0}") int count,
+            @Value("${tictactoe.shards.queue-capacity:1024}") int queueCapacity,
+            GameLocks gameLocks) {
+        this.gameLocks = gameLocks;
+        this.shards = new ThreadPoolExecutor[count];
+        for (int i = 0; i < count; i++) {
+            final String name = "game-shard-" + i;
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        final Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    /**
+     * Runs the command on the game's shard and waits for it, rethrowing whatever the command threw. A caller
+     * interrupted while waiting gets an {@link IllegalStateException} with its interrupt flag set again; the
+     * command is cancelled if it has not started yet.
+     */
+    @SneakyThrows
+    public <T> T execute(UUID id, Callable<T> command) {
+        if (shards.length == 0)
+            return executeLocked(id, command);
+
+        final Future<T> result;
+        try {
+            result = shards[shardOf(id)].submit(command);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new GameBusyException();
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a command of game " + id, e);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Commands waiting in the given shard's queue, not counting the one running.
+     */
+    public int getQueueDepth(int shard) {
+        return shards[shard].getQueue().size();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    int shardOf(UUID id) {
+        return (id.hashCode() & 0x7fffffff) % shards.length;
+    }
+
+    private <T> T executeLocked(UUID id, Callable<T> command) throws Exception {
+        final ReentrantLock lock = gameLocks.lockFor(id);
+        lock.lock();
+        try {
+            return command.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.challenge.tictactoe.service;
+
+import java.util.UUID;
+
+import com.challenge.tictactoe.model.GameState;
+
+/**
+ * Bounded, write-through cache of game states keyed by game id: {@link LruGameStateCache} on the heap by
+ * default, or {@link OffHeapGameStateCache} with {@code tictactoe.cache.type=off-heap}.
+ * <p>
+ * Each node has its own cache and hears nothing of the moves other nodes commit. A move validated against a
+ * stale entry still fails its version check, but a read would return the stale board, so entries expire
+ * {@code tictactoe.cache.ttl} after they were put and are then read from the database again.
+ */
+public interface GameStateCache {
+
+    /**
+     * @return the cached state, or null on a miss
+     */
+    GameState get(UUID id);
+
+    void put(UUID id, GameState state);
+
+    void invalidate(UUID id);
+
+    long size();
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+}
@@ -0,0 +1,238 @@
+package com.challenge.tictactoe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.api.response.GameStatsResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.repo.GameStatsRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Product statistics kept up to date as games change, so reading them costs the same however many games
+ * there are: games created, won by either side, drawn and abandoned, moves per finished game, and first
+ * moves played.
+ * <p>
+ * Every total is a {@link LongAdder} counted on this node on top of the cluster-wide total last read from
+ * the game_stats table. Every {@code tictactoe.stats.checkpoint-interval} what this node counted since is
+ * added to the table and the totals are read back. Without the table, on the reactive and embedded stacks,
+ * the statistics cover this process only.
+ * <p>
+ * With write-behind a finished game is counted when its write commits, so one dropped as a conflict
+ * afterwards is not; a new game is counted once its write is acknowledged, which with ENQUEUE durability
+ * is before it commits.
+ * <p>
+ * Games in progress are those created and neither finished nor abandoned. Games deleted by id or expired
+ * while unfinished count as abandoned; bulk deletes without a status filter are not counted.
+ */
+@Component
+@Slf4j
+public class GameStats {
+
+    private static final int MAX_CELLS = BitBoard.MAX_SIZE * BitBoard.MAX_SIZE;
+
+    private final Total created = new Total("created");
+    private final Total wonByX = new Total("x_won");
+    private final Total wonByO = new Total("o_won");
+    private final Total draws = new Total("draw");
+    private final Total abandoned = new Total("abandoned");
+    private final Total finishedMoves = new Total("finished_moves");
+    // First moves by cell, rows and columns counted up to the largest board
+    private final Total[] openings = new Total[MAX_CELLS];
+    private final List<Total> totals = new ArrayList<>();
+
+    private final GameStatsRepository gameStatsRepository;
+    private final Duration checkpointInterval;
+    private ScheduledExecutorService checkpointer;
+
+    /**
+     * @param gameStatsRepository where totals are checkpointed, empty to count for this process only
+     */
+    public GameStats(Optional<GameStatsRepository> gameStatsRepository,
+            @Value("${tictactoe.stats.checkpoint-interval:PT10S}") Duration checkpointInterval) {
+        this.gameStatsRepository = gameStatsRepository.orElse(null);
+        this.checkpointInterval = checkpointInterval;
+
+        totals.addAll(List.of(created, wonByX, wonByO, draws, abandoned, finishedMoves));
+        for (int cell = 0; cell < MAX_CELLS; cell++) {
+            openings[cell] = new Total("opening_" + cell / BitBoard.MAX_SIZE + "_" + cell % BitBoard.MAX_SIZE);
+            totals.add(openings[cell]);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (gameStatsRepository == null)
+            return;
+
+        refresh(gameStatsRepository.getAll());
+
+        checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "game-stats-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = checkpointInterval.toMillis();
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                log.warn("Checkpointing game statistics failed, retrying in {}", checkpointInterval, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts a new game and its first move.
+     */
+    public void recordCreated(GameState state) {
+        created.local.increment();
+
+        final BitBoard board = state.getBoard();
+        final long[] xBits = board.getXBits();
+        for (int word = 0; word < xBits.length; word++) {
+            if (xBits[word] != 0) {
+                final int cell = word * Long.SIZE + Long.numberOfTrailingZeros(xBits[word]);
+                openings[cell / board.getColumns() * BitBoard.MAX_SIZE + cell % board.getColumns()].local.increment();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Counts the outcome of a state that was just committed, if the move finished the game.
+     */
+    public void recordCommitted(GameState state) {
+        final GameStatus status = state.getStatus();
+        if (status == GameStatus.IN_PROGRESS)
+            return;
+
+        switch (status) {
+            case X_WON:
+                wonByX.local.increment();
+                break;
+            case O_WON:
+                wonByO.local.increment();
+                break;
+            default:
+                draws.local.increment();
+        }
+        finishedMoves.local.add(state.getVersion());
+    }
+
+    public void recordAbandoned(long games) {
+        abandoned.local.add(games);
+    }
+
+    public GameStatsResponse getStats() {
+        final long finished = wonByX.value() + wonByO.value() + draws.value();
+
+        final List<GameStatsResponse.Opening> played = new ArrayList<>();
+        for (int cell = 0; cell < MAX_CELLS; cell++) {
+            final long games = openings[cell].value();
+            if (games > 0)
+                played.add(new GameStatsResponse.Opening(cell / BitBoard.MAX_SIZE, cell % BitBoard.MAX_SIZE, games));
+        }
+        played.sort(Comparator.comparingLong(GameStatsResponse.Opening::getGames).reversed());
+
+        return new GameStatsResponse(created.value(),
+                Math.max(0, created.value() - finished - abandoned.value()),
+                wonByX.value(), wonByO.value(), draws.value(), abandoned.value(),
+                finished == 0 ? 0 : (double) finishedMoves.value() / finished,
+                played);
+    }
+
+    /**
+     * Adds what was counted since the last checkpoint to the shared totals and reads them back.
+     */
+    public synchronized void checkpoint() {
+        if (gameStatsRepository == null)
+            return;
+
+        final Map<String, Long> deltas = new HashMap<>();
+        final long[] sums = new long[totals.size()];
+        for (int i = 0; i < sums.length; i++) {
+            final Total total = totals.get(i);
+            sums[i] = total.local.sum();
+            final long delta = sums[i] - total.checkpoint.counted;
+            if (delta != 0)
+                deltas.put(total.name, delta);
+        }
+
+        gameStatsRepository.add(deltas);
+        // The deltas are in the shared totals now: move the baseline past them before reading the totals back,
+        // so a failed read cannot make the next checkpoint add them again
+        for (int i = 0; i < sums.length; i++) {
+            final Total total = totals.get(i);
+            final Checkpoint last = total.checkpoint;
+            total.checkpoint = new Checkpoint(last.shared + sums[i] - last.counted, sums[i]);
+        }
+
+        refresh(gameStatsRepository.getAll());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (checkpointer == null)
+            return;
+
+        checkpointer.shutdownNow();
+        checkpoint();
+    }
+
+    private void refresh(Map<String, Long> shared) {
+        for (Total total : totals) {
+            total.checkpoint = new Checkpoint(shared.getOrDefault(total.name, 0L), total.checkpoint.counted);
+        }
+    }
+
+    private static final class Total {
+
+        private final String name;
+        private final LongAdder local = new LongAdder();
+
+        // Replaced as a whole, so a reader never pairs a new shared total with an old local count
+        private volatile Checkpoint checkpoint = new Checkpoint(0, 0);
+
+        private Total(String name) {
+            this.name = name;
+        }
+
+        private long value() {
+            final Checkpoint last = checkpoint;
+            return last.shared + local.sum() - last.counted;
+        }
+    }
+
+    /**
+     * The shared total as of a checkpoint, and how much of the local count it already includes.
+     */
+    private static final class Checkpoint {
+
+        private final long shared;
+        private final long counted;
+
+        private Checkpoint(long shared, long counted) {
+            this.shared = shared;
+            this.counted = counted;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.challenge.tictactoe.service;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Subscribers to the changes of individual games. Each committed move is serialized to JSON once and the same
+ * string is handed to every subscriber of the game; games nobody watches are not serialized at all.
+ * <p>
+ * Publishing only queues the update: every subscriber has a queue of
+ * {@code tictactoe.subscriptions.queue-capacity} updates, drained in order on one of
+ * {@code tictactoe.subscriptions.threads} threads, so a slow connection never holds up the move that produced
+ * the update. Every update carries the full board, so a subscriber whose queue is full skips its oldest
+ * update rather than holding up the others.
+ */
+@Component
+public class GameSubscriptions {
+
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final int queueCapacity;
+
+    private final Map<UUID, Set<Subscriber>> listeners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameSubscriptions(ObjectMapper objectMapper, @Value("${tictactoe.subscriptions.threads:4}") int threads,
+            @Value("${tictactoe.subscriptions.queue-capacity:64}") int queueCapacity) {
+        this(objectMapper, deliveryThreads(threads), queueCapacity);
+    }
+
+    /**
+     * @param executor runs the deliveries to the listeners
+     */
+    public GameSubscriptions(ObjectMapper objectMapper, Executor executor, int queueCapacity) {
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public interface Listener {
+
+        void onUpdate(String gameJson);
+
+        /**
+         * The game is finished or deleted and no further updates will follow.
+         */
+        void onClose();
+    }
+
+    /**
+     * Sends the current game to the listener and registers it for the following moves, unless the game is
+     * already over.
+     *
+     * @return action that removes the listener again
+     */
+    public Runnable subscribe(UUID id, GameResponse current, Listener listener) {
+        final Subscriber subscriber = new Subscriber(listener);
+        subscriber.send(serialize(current));
+        if (isOver(current)) {
+            subscriber.close();
+            return () -> { };
+        }
+
+        listeners.compute(id, (key, subscribers) -> {
+            final Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+
+        return () -> unsubscribe(id, subscriber);
+    }
+
+    /**
+     * Queues the game for its subscribers; called once the move is committed, in the order of the moves.
+     */
+    public void publish(UUID id, GameResponse game) {
+        final Set<Subscriber> subscribers = listeners.get(id);
+        if (subscribers == null || subscribers.isEmpty())
+            return;
+
+        final String gameJson = serialize(game);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(gameJson);
+        }
+
+        if (isOver(game))
+            close(id);
+    }
+
+    public void close(UUID id) {
+        final Set<Subscriber> subscribers = listeners.remove(id);
+        if (subscribers == null)
+            return;
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    private String serialize(GameResponse game) {
+        try {
+            return objectMapper.writeValueAsString(game);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getSubscriberCount(UUID id) {
+        final Set<Subscriber> subscribers = listeners.get(id);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService)
+            ((ExecutorService) executor).shutdown();
+    }
+
+    private static ExecutorService deliveryThreads(int threads) {
+        final AtomicInteger count = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "game-subscriptions-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private boolean isOver(GameResponse game) {
+        return game.getWinner() != null || game.getBoard().isFull();
+    }
+
+    private void unsubscribe(UUID id, Subscriber subscriber) {
+        subscriber.cancelled = true;
+        listeners.computeIfPresent(id, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * A listener with its queue of updates. At most one drain of the queue is scheduled at a time, so the
+     * listener sees the updates one by one and in order.
+     */
+    private final class Subscriber {
+
+        private final Listener listener;
+        private final Queue<String> updates = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closing;
+        private volatile boolean cancelled;
+        private boolean closed;
+
+        private Subscriber(Listener listener) {
+            this.listener = listener;
+        }
+
+        private void send(String gameJson) {
+            while (!updates.offer(gameJson))
+                updates.poll();
+
+            schedule();
+        }
+
+        /**
+         * Closes the listener once the updates queued so far are delivered.
+         */
+        private void close() {
+            closing = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true))
+                executor.execute(this::drain);
+        }
+
+        private void drain() {
+            String gameJson;
+            while (!cancelled && (gameJson = updates.poll()) != null)
+                listener.onUpdate(gameJson);
+
+            if (closing && !closed && !cancelled) {
+                closed = true;
+                listener.onClose();
+            }
+            draining.set(false);
+
+            // Something queued after the last poll but before the flag was cleared
+            if (!cancelled && (!updates.isEmpty() || closing && !closed))
+                schedule();
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.challenge.tictactoe.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.exception.GameBusyException;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+import com.challenge.tictactoe.repo.GameInfoRepository;
+import com.challenge.tictactoe.repo.GameJournal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind for game writes, enabled with {@code tictactoe.write-behind.enabled}.
+ * <p>
+ * Accepted writes are journaled and queued, and a single flusher thread commits everything queued as one
+ * {@link GameInfoRepository#writeAll} transaction every {@code flush-interval} or as soon as
+ * {@code flush-size} writes are waiting, so many moves share one commit. Several writes to one game in a
+ * batch collapse into one. With {@link Durability#FLUSH} a write is acknowledged once its batch has committed;
+ * with {@link Durability#ENQUEUE} as soon as it is journaled, and a conflict found at flush time can then only
+ * be logged and counted. Finished games are counted in {@link GameStats} only once their write has
+ * committed, so a write dropped later is never counted.
+ * <p>
+ * At most {@code max-pending} writes wait at a time; further writes are rejected with {@link GameBusyException}
+ * until a flush makes room. An ENQUEUE batch that keeps failing is retried {@code max-retries} times, then its
+ * writes are tried one by one and those still failing are dropped and counted, so one bad write cannot hold
+ * up every later one.
+ * <p>
+ * Writes still waiting at shutdown are flushed. After a crash the journal segments left behind are replayed
+ * at startup: each game is brought up to its last journaled state, unless the database already has it or
+ * another node changed the game in between.
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class GameWriteBehind {
+
+    public enum Durability {
+        FLUSH, ENQUEUE
+    }
+
+    private final GameInfoRepository gameInfoRepository;
+    private final GameStateCache gameStateCache;
+    private final GameStats gameStats;
+    private final boolean enabled;
+    private final Durability durability;
+    private final long flushIntervalMs;
+    private final int flushSize;
+    private final int maxPending;
+    private final int maxRetries;
+    private final String journalDirectory;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final Object lock = new Object();
+
+    // Guarded by lock: writes waiting for the next batch and their callers in submission order, and the
+    // batch being committed
+    private Map<UUID, GameWrite> pending = new LinkedHashMap<>();
+    private List<Waiter> waiters = new ArrayList<>();
+    private Map<UUID, GameWrite> inFlight = Collections.emptyMap();
+    private CompletableFuture<Set<UUID>> nextBatch = new CompletableFuture<>();
+    private CompletableFuture<Set<UUID>> inFlightBatch = CompletableFuture.completedFuture(Collections.emptySet());
+    private int pendingWrites;
+    private boolean flushRequested;
+    private boolean running;
+
+    // Flusher thread only: ENQUEUE batches failed in a row
+    private int failedFlushes;
+
+    private GameJournal journal;
+    private final List<Path> uncommittedSegments = new ArrayList<>();
+    private Thread flusher;
+
+    public GameWriteBehind(GameInfoRepository gameInfoRepository, GameStateCache gameStateCache,
+            GameStats gameStats, MeterRegistry meterRegistry,
+            @Value("${tictactoe.write-behind.enabled:false}") boolean enabled,
+            @Value("${tictactoe.write-behind.durability:FLUSH}") Durability durability,
+            @Value("${tictactoe.write-behind.flush-interval-ms:10}") long flushIntervalMs,
+            @Value("${tictactoe.write-behind.flush-size:500}") int flushSize,
+            @Value("${tictactoe.write-behind.max-pending:10000}") int maxPending,
+            @Value("${tictactoe.write-behind.max-retries:5}") int maxRetries,
+            @Value("${tictactoe.write-behind.journal-dir:}") String journalDirectory) {
+        this.gameInfoRepository = gameInfoRepository;
+        this.gameStateCache = gameStateCache;
+        this.gameStats = gameStats;
+        this.enabled = enabled;
+        this.durability = durability;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushSize = flushSize;
+        this.maxPending = maxPending;
+        this.maxRetries = maxRetries;
+        this.journalDirectory = journalDirectory;
+
+        if (enabled) {
+            Gauge.builder("game.write-behind.pending", this, GameWriteBehind::getPendingWrites)
+                    .register(meterRegistry);
+            FunctionCounter.builder("game.write-behind.conflicts", this, GameWriteBehind::getConflicts)
+                    .register(meterRegistry);
+            FunctionCounter.builder("game.write-behind.rejections", this, GameWriteBehind::getRejections)
+                    .register(meterRegistry);
+            FunctionCounter.builder("game.write-behind.dropped", this, GameWriteBehind::getDropped)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Replays what the last run left in the journal, then starts the flusher.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled)
+            return;
+
+        if (!journalDirectory.isEmpty()) {
+            journal = new GameJournal(Paths.get(journalDirectory));
+            recover(journal.recover());
+            journal.delete(journal.getRecoveredSegments());
+        }
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "game-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the write; the future completes when the write counts as done under the configured durability,
+     * exceptionally with {@link GameConflictException} if the game was changed elsewhere in between. Throws
+     * {@link GameBusyException} when {@code max-pending} writes are waiting already. With
+     * FLUSH the futures of a batch complete on the flusher thread in the order the writes were submitted,
+     * before the batch stops being served by {@link #getPending}.
+     */
+    public CompletableFuture<Void> submit(GameWrite write) {
+        if (durability == Durability.ENQUEUE) {
+            enqueue(write, null);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        enqueue(write, done);
+
+        return done;
+    }
+
+    private void enqueue(GameWrite write, CompletableFuture<Void> done) {
+        final long journaled;
+        synchronized (lock) {
+            if (pendingWrites >= maxPending) {
+                rejections.increment();
+                throw new GameBusyException();
+            }
+
+            try {
+                journaled = journal != null ? journal.append(write) : 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            pending.merge(write.getId(), write, GameWriteBehind::collapse);
+            if (done != null)
+                waiters.add(new Waiter(write.getId(), done));
+            if (++pendingWrites >= flushSize)
+                lock.notifyAll();
+        }
+
+        // An ENQUEUE answer promises the write outlives a crash, so it waits for the journal to reach the disk;
+        // a failed sync fails the request although the write stays queued
+        if (done == null && journal != null) {
+            try {
+                journal.sync(journaled);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Latest state written for the game that may not be in the database yet, or null.
+     */
+    public GameState getPending(UUID id) {
+        if (!enabled)
+            return null;
+
+        synchronized (lock) {
+            GameWrite write = pending.get(id);
+            if (write == null)
+                write = inFlight.get(id);
+
+            return write != null ? write.getState() : null;
+        }
+    }
+
+    /**
+     * Returns once everything written so far is committed or finally dropped, e.g. ahead of a delete that must
+     * not be overtaken by a queued create. A batch put back to be retried holds this up until the retry.
+     */
+    public void flush() {
+        if (!enabled)
+            return;
+
+        final CompletableFuture<Set<UUID>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                batch = inFlightBatch;
+            } else {
+                batch = nextBatch;
+                flushRequested = true;
+                lock.notifyAll();
+            }
+        }
+
+        batch.join();
+    }
+
+    public int getPendingWrites() {
+        synchronized (lock) {
+            return pendingWrites;
+        }
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        if (!enabled)
+            return;
+
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        flusher.join();
+
+        if (journal != null)
+            journal.close();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            final Map<UUID, GameWrite> batch;
+            final List<Waiter> batchWaiters;
+            final CompletableFuture<Set<UUID>> committed;
+            synchronized (lock) {
+                final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                long remaining;
+                while (running && !flushRequested && pendingWrites < flushSize
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        running = false;
+                    }
+                }
+
+                if (pending.isEmpty()) {
+                    flushRequested = false;
+                    if (!running)
+                        return;
+                    continue;
+                }
+
+                batch = pending;
+                batchWaiters = waiters;
+                committed = nextBatch;
+                inFlight = batch;
+                inFlightBatch = committed;
+                pending = new LinkedHashMap<>();
+                waiters = new ArrayList<>();
+                nextBatch = new CompletableFuture<>();
+                pendingWrites = 0;
+                flushRequested = false;
+
+                if (journal != null) {
+                    try {
+                        uncommittedSegments.add(journal.rotate());
+                    } catch (IOException e) {
+                        log.error("Rotating the write-behind journal failed", e);
+                    }
+                }
+            }
+
+            commit(batch, batchWaiters, committed);
+        }
+    }
+
+    private void commit(Map<UUID, GameWrite> batch, List<Waiter> batchWaiters,
+            CompletableFuture<Set<UUID>> committed) {
+        final Set<UUID> conflicted;
+        try {
+            conflicted = gameInfoRepository.writeAll(new ArrayList<>(batch.values()));
+        } catch (RuntimeException e) {
+            log.error("Flushing {} game writes failed", batch.size(), e);
+            retryOrDrop(batch, batchWaiters, committed, e);
+            return;
+        }
+
+        failedFlushes = 0;
+        for (GameWrite write : batch.values()) {
+            if (!conflicted.contains(write.getId()))
+                gameStats.recordCommitted(write.getState());
+        }
+        for (UUID id : conflicted) {
+            gameStateCache.invalidate(id);
+            conflicts.increment();
+            if (durability == Durability.ENQUEUE)
+                log.warn("Dropped acknowledged write to game {}, it was changed elsewhere", id);
+        }
+        for (Waiter waiter : batchWaiters) {
+            if (conflicted.contains(waiter.id))
+                waiter.done.completeExceptionally(new GameConflictException());
+            else
+                waiter.done.complete(null);
+        }
+
+        synchronized (lock) {
+            inFlight = Collections.emptyMap();
+        }
+        deleteSegments();
+        committed.complete(conflicted);
+    }
+
+    /**
+     * With ENQUEUE the writes were acknowledged already, so they go back in front of the queue to be retried
+     * after a pause, up to {@code max-retries} times in a row, and the batch counts as done only with the batch
+     * they are retried in; with FLUSH their callers get the error and the cached states they produced are
+     * dropped.
+     */
+    private void retryOrDrop(Map<UUID, GameWrite> batch, List<Waiter> batchWaiters,
+            CompletableFuture<Set<UUID>> committed, RuntimeException e) {
+        if (durability == Durability.ENQUEUE && ++failedFlushes > maxRetries) {
+            failedFlushes = 0;
+            writeOneByOne(batch);
+            synchronized (lock) {
+                inFlight = Collections.emptyMap();
+            }
+            deleteSegments();
+            committed.complete(Collections.emptySet());
+            return;
+        }
+
+        synchronized (lock) {
+            inFlight = Collections.emptyMap();
+            if (durability == Durability.ENQUEUE) {
+                final Map<UUID, GameWrite> retry = new LinkedHashMap<>(batch);
+                pending.forEach((id, write) -> retry.merge(id, write, GameWriteBehind::collapse));
+                pending = retry;
+                pendingWrites += batch.size();
+                nextBatch.thenAccept(committed::complete);
+            }
+        }
+
+        if (durability == Durability.ENQUEUE) {
+            try {
+                Thread.sleep(flushIntervalMs * failedFlushes);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            batch.keySet().forEach(gameStateCache::invalidate);
+            batchWaiters.forEach(waiter -> waiter.done.completeExceptionally(e));
+            deleteSegments();
+            committed.complete(Collections.emptySet());
+        }
+    }
+
+    /**
+     * Last attempt for a batch that failed {@code max-retries} times: each write in its own transaction, so
+     * only the writes that fail on their own are dropped.
+     */
+    private void writeOneByOne(Map<UUID, GameWrite> batch) {
+        for (GameWrite write : batch.values()) {
+            try {
+                if (gameInfoRepository.writeAll(List.of(write)).isEmpty()) {
+                    gameStats.recordCommitted(write.getState());
+                } else {
+                    gameStateCache.invalidate(write.getId());
+                    conflicts.increment();
+                    log.warn("Dropped acknowledged write to game {}, it was changed elsewhere", write.getId());
+                }
+            } catch (RuntimeException e) {
+                gameStateCache.invalidate(write.getId());
+                dropped.increment();
+                log.error("Dropped acknowledged write to game {} after {} failed flushes", write.getId(),
+                        maxRetries + 1, e);
+            }
+        }
+    }
+
+    private void deleteSegments() {
+        if (journal == null)
+            return;
+
+        try {
+            journal.delete(uncommittedSegments);
+            uncommittedSegments.clear();
+        } catch (IOException e) {
+            log.warn("Deleting committed write-behind journal segments failed", e);
+        }
+    }
+
+    /**
+     * Brings every journaled game up to its last state. Each game's writes are replayed from the first one the
+     * database does not have yet, expecting the version they were journaled with; a game changed elsewhere
+     * since is left as it is and counted as a conflict, as are games whose replay loses a race at commit.
+     */
+    private void recover(List<GameWrite> journaled) {
+        if (journaled.isEmpty())
+            return;
+
+        final Map<UUID, List<GameWrite>> byGame = new LinkedHashMap<>();
+        journaled.forEach(write -> byGame.computeIfAbsent(write.getId(), id -> new ArrayList<>()).add(write));
+
+        final Map<UUID, GameState> stored = gameInfoRepository.getByIds(byGame.keySet());
+        final List<GameWrite> writes = new ArrayList<>();
+        int changedElsewhere = 0;
+        for (Map.Entry<UUID, List<GameWrite>> game : byGame.entrySet()) {
+            final List<GameWrite> gameWrites = game.getValue();
+            final int first = firstUnapplied(gameWrites, stored.get(game.getKey()));
+            if (first < 0) {
+                changedElsewhere++;
+                log.warn("Dropped journaled writes to game {}, it was changed elsewhere", game.getKey());
+            } else if (first < gameWrites.size()) {
+                GameWrite replay = gameWrites.get(first);
+                for (int i = first + 1; i < gameWrites.size(); i++) {
+                    replay = collapse(replay, gameWrites.get(i));
+                }
+                writes.add(replay);
+            }
+        }
+
+        final Collection<UUID> conflicted = gameInfoRepository.writeAll(writes);
+        conflicts.add(changedElsewhere + conflicted.size());
+        log.info("Recovered {} journaled game writes, {} games applied, {} conflicting", journaled.size(),
+                writes.size() - conflicted.size(), changedElsewhere + conflicted.size());
+    }
+
+    /**
+     * Position of the first of a game's journaled writes that the stored game does not have yet: the one after
+     * the write whose state is stored, or the first if the stored game is at the version it expects. Returns
+     * the number of writes if there is nothing to replay, and -1 if the stored game is at neither, because it
+     * was changed elsewhere after the crash.
+     */
+    private static int firstUnapplied(List<GameWrite> writes, GameState stored) {
+        if (stored == null) {
+            // Not created yet, or deleted since
+            return writes.get(0).isNewGame() ? 0 : writes.size();
+        }
+
+        for (int i = writes.size() - 1; i >= 0; i--) {
+            if (isSameState(writes.get(i).getState(), stored))
+                return i + 1;
+        }
+
+        return writes.get(0).getExpectedVersion() == stored.getVersion() ? 0 : -1;
+    }
+
+    private static boolean isSameState(GameState journaled, GameState stored) {
+        return journaled != null && journaled.getVersion() == stored.getVersion()
+                && Arrays.equals(journaled.getBoard().getXBits(), stored.getBoard().getXBits())
+                && Arrays.equals(journaled.getBoard().getOBits(), stored.getBoard().getOBits());
+    }
+
+    private static final class Waiter {
+
+        private final UUID id;
+        private final CompletableFuture<Void> done;
+
+        private Waiter(UUID id, CompletableFuture<Void> done) {
+            this.id = id;
+            this.done = done;
+        }
+    }
+
+    /**
+     * Merges a later write into an earlier one of the same game: the later state, expected at the earlier
+     * version or created outright.
+     */
+    private static GameWrite collapse(GameWrite earlier, GameWrite later) {
+        return new GameWrite(earlier.getId(), later.getState(), earlier.getExpectedVersion());
+    }
+}
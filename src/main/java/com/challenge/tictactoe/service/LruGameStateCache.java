@@ -0,0 +1,137 @@
+package com.challenge.tictactoe.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.model.GameState;
+
+/**
+ * Game state cache on the heap, the default. Entries are spread over independently locked LRU segments so
+ * readers of different games do not contend. An expired entry reads as a miss and stays until it is put
+ * again or evicted.
+ */
+@Component
+@ConditionalOnProperty(name = "tictactoe.cache.type", havingValue = "heap", matchIfMissing = true)
+public class LruGameStateCache implements GameStateCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruGameStateCache(@Value("${tictactoe.cache.max-size:100000}") int maxSize,
+            @Value("${tictactoe.cache.ttl:PT5S}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        final int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    @Override
+    public GameState get(UUID id) {
+        final Entry entry = segment(id).get(id);
+        final GameState state = entry != null && System.nanoTime() - entry.written < ttlNanos ? entry.state : null;
+        if (state == null)
+            misses.increment();
+        else
+            hits.increment();
+
+        return state;
+    }
+
+    @Override
+    public void put(UUID id, GameState state) {
+        segment(id).put(id, new Entry(state, System.nanoTime()));
+    }
+
+    @Override
+    public void invalidate(UUID id) {
+        segment(id).remove(id);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private Segment segment(UUID id) {
+        return segments[(id.hashCode() & 0x7fffffff) % SEGMENTS];
+    }
+
+    private static final class Entry {
+
+        private final GameState state;
+        private final long written;
+
+        private Entry(GameState state, long written) {
+            this.state = state;
+            this.written = written;
+        }
+    }
+
+    private final class Segment {
+
+        private final Map<UUID, Entry> entries;
+
+        private Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                    if (size() <= maxSize)
+                        return false;
+
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        private synchronized Entry get(UUID id) {
+            return entries.get(id);
+        }
+
+        private synchronized void put(UUID id, Entry entry) {
+            entries.put(id, entry);
+        }
+
+        private synchronized void remove(UUID id) {
+            entries.remove(id);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.challenge.tictactoe.service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+
+/**
+ * Game state cache outside the heap, for millions of games without the garbage collector having to trace
+ * them; selected with {@code tictactoe.cache.type=off-heap}.
+ * <p>
+ * Games are kept in open-addressing hash tables in direct buffers, keyed by the two longs of the id, one
+ * 48-byte entry each: the id, both bitsets, the board settings, mode and winner packed in an int, the time
+ * of the last access and the time it was put, after which it expires. The version is the move count, so it
+ * needs no space of its own. A hit allocates only the state it returns.
+ * <p>
+ * The tables are striped by id hash. Readers take no lock: they read optimistically and retry under the
+ * stripe's read lock only if a writer got in between. Writers take the stripe's write lock. A full stripe
+ * evicts the least recently used of a few sampled entries.
+ * <p>
+ * Boards of more than 64 cells do not fit an entry and are kept in a small {@link LruGameStateCache}.
+ * Each stripe's table is a power of two at least twice the stripe's share of {@code max-size}, so allow for
+ * up to {@code 192 * max-size} bytes of direct memory, see {@code -XX:MaxDirectMemorySize}.
+ */
+@Component
+@ConditionalOnProperty(name = "tictactoe.cache.type", havingValue = "off-heap")
+public class OffHeapGameStateCache implements GameStateCache {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int MIN_CAPACITY = 16;
+    private static final int EVICTION_SAMPLES = 8;
+
+    // Entry layout
+    private static final int ENTRY_BYTES = 48;
+    private static final int ID_MOST = 0;
+    private static final int ID_LEAST = 8;
+    private static final int X_BITS = 16;
+    private static final int O_BITS = 24;
+    private static final int SETTINGS = 32;
+    private static final int LAST_ACCESS = 36;
+    private static final int WRITTEN = 40;
+
+    // Packed settings; an empty entry reads as 0 since no board has 0 rows
+    private static final int SIZE_BITS = 6;
+    private static final int SIZE_MASK = (1 << SIZE_BITS) - 1;
+    private static final int COLUMNS_SHIFT = SIZE_BITS;
+    private static final int WIN_LENGTH_SHIFT = 2 * SIZE_BITS;
+    private static final int MODE_SHIFT = 3 * SIZE_BITS;
+    private static final int WINNER_SHIFT = MODE_SHIFT + 2;
+
+    private static final GameMode[] MODES = GameMode.values();
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final LruGameStateCache largeBoards;
+    private final long startNanos = System.nanoTime();
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public OffHeapGameStateCache(@Value("${tictactoe.cache.max-size:100000}") int maxSize,
+            @Value("${tictactoe.cache.large-boards-max-size:10000}") int largeBoardsMaxSize,
+            @Value("${tictactoe.cache.ttl:PT5S}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        final int stripeSize = Math.max(1, (maxSize + stripes.length - 1) / stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(stripeSize);
+        }
+        largeBoards = new LruGameStateCache(largeBoardsMaxSize, ttl);
+    }
+
+    @Override
+    public GameState get(UUID id) {
+        final long most = id.getMostSignificantBits();
+        final long least = id.getLeastSignificantBits();
+        final int hash = hash(most, least);
+
+        GameState state = stripe(hash).get(most, least, hash, now(), System.nanoTime() - startNanos - ttlNanos);
+        if (state == null)
+            state = largeBoards.get(id);
+
+        if (state == null)
+            misses.increment();
+        else
+            hits.increment();
+
+        return state;
+    }
+
+    @Override
+    public void put(UUID id, GameState state) {
+        final BitBoard board = state.getBoard();
+        if (board.getCells() > Long.SIZE) {
+            largeBoards.put(id, state);
+            return;
+        }
+
+        final long most = id.getMostSignificantBits();
+        final long least = id.getLeastSignificantBits();
+        final int hash = hash(most, least);
+        stripe(hash).put(most, least, hash, board.getXBits()[0], board.getOBits()[0], settings(state), now(),
+                System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void invalidate(UUID id) {
+        final long most = id.getMostSignificantBits();
+        final long least = id.getLeastSignificantBits();
+        final int hash = hash(most, least);
+
+        stripe(hash).remove(most, least, hash);
+        largeBoards.invalidate(id);
+    }
+
+    @Override
+    public long size() {
+        long size = largeBoards.size();
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+
+        return size;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum() + largeBoards.getEvictions();
+    }
+
+    private Stripe stripe(int hash) {
+        return stripes[hash >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    // Seconds are enough to tell recently used entries from the others
+    private int now() {
+        return (int) ((System.nanoTime() - startNanos) / 1_000_000_000L);
+    }
+
+    private static int hash(long most, long least) {
+        final long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int settings(GameState state) {
+        final BitBoard board = state.getBoard();
+        final String winner = board.winner();
+        final int winnerCode = winner == null ? 0 : BitBoard.X.equals(winner) ? 1 : 2;
+
+        return board.getRows()
+                | board.getColumns() << COLUMNS_SHIFT
+                | board.getWinLength() << WIN_LENGTH_SHIFT
+                | state.getMode().ordinal() << MODE_SHIFT
+                | winnerCode << WINNER_SHIFT;
+    }
+
+    private static GameState toState(long xBits, long oBits, int settings) {
+        final int winnerCode = settings >>> WINNER_SHIFT;
+        final String winner = winnerCode == 0 ? null : winnerCode == 1 ? BitBoard.X : BitBoard.O;
+
+        final BitBoard board = BitBoard.fromBits(settings & SIZE_MASK,
+                (settings >>> COLUMNS_SHIFT) & SIZE_MASK,
+                (settings >>> WIN_LENGTH_SHIFT) & SIZE_MASK,
+                new long[] { xBits }, new long[] { oBits }, winner);
+
+        return new GameState(board, MODES[(settings >>> MODE_SHIFT) & 3]);
+    }
+
+    /**
+     * Linear-probing table at most half full, so every probe ends at an empty entry. Removal shifts the
+     * following entries back instead of leaving tombstones.
+     */
+    private final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+        private final ByteBuffer entries;
+        private final int mask;
+        private final int maxSize;
+
+        // Written under the write lock, read without it for size()
+        private volatile int size;
+
+        private Stripe(int maxSize) {
+            final int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(maxSize * 2 - 1) << 1);
+            this.entries = ByteBuffer.allocateDirect(capacity * ENTRY_BYTES);
+            this.mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * @param expired entries put at or before this time read as misses
+         */
+        private GameState get(long most, long least, int hash, int now, long expired) {
+            long stamp = lock.tryOptimisticRead();
+            boolean locked = false;
+            try {
+                while (true) {
+                    final int index = find(most, least, hash);
+                    final int offset = index * ENTRY_BYTES;
+                    final long xBits = index < 0 ? 0 : entries.getLong(offset + X_BITS);
+                    final long oBits = index < 0 ? 0 : entries.getLong(offset + O_BITS);
+                    final int settings = index < 0 ? 0 : entries.getInt(offset + SETTINGS);
+                    final long written = index < 0 ? 0 : entries.getLong(offset + WRITTEN);
+
+                    if (locked || lock.validate(stamp)) {
+                        if (index < 0 || written <= expired)
+                            return null;
+
+                        // Unlocked, a racing move may put the time on a neighbouring entry; eviction is only a guess
+                        entries.putInt(offset + LAST_ACCESS, now);
+                        return toState(xBits, oBits, settings);
+                    }
+
+                    stamp = lock.readLock();
+                    locked = true;
+                }
+            } finally {
+                if (locked)
+                    lock.unlockRead(stamp);
+            }
+        }
+
+        private void put(long most, long least, int hash, long xBits, long oBits, int settings, int now,
+                long written) {
+            final long stamp = lock.writeLock();
+            try {
+                int index = find(most, least, hash);
+                if (index < 0) {
+                    if (size >= maxSize) {
+                        evictOne();
+                        evictions.increment();
+                    }
+
+                    index = hash & mask;
+                    while (isUsed(index))
+                        index = (index + 1) & mask;
+                    size++;
+                }
+
+                final int offset = index * ENTRY_BYTES;
+                entries.putLong(offset + ID_MOST, most);
+                entries.putLong(offset + ID_LEAST, least);
+                entries.putLong(offset + X_BITS, xBits);
+                entries.putLong(offset + O_BITS, oBits);
+                entries.putInt(offset + SETTINGS, settings);
+                entries.putInt(offset + LAST_ACCESS, now);
+                entries.putLong(offset + WRITTEN, written);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void remove(long most, long least, int hash) {
+            final long stamp = lock.writeLock();
+            try {
+                final int index = find(most, least, hash);
+                if (index >= 0)
+                    delete(index);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * @return the entry's index, or -1 if absent
+         */
+        private int find(long most, long least, int hash) {
+            int index = hash & mask;
+            // Bounded, since unlocked readers may see entries move under them
+            for (int probes = 0; probes <= mask && isUsed(index); probes++) {
+                final int offset = index * ENTRY_BYTES;
+                if (entries.getLong(offset + ID_MOST) == most && entries.getLong(offset + ID_LEAST) == least)
+                    return index;
+
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        /**
+         * Removes the entry accessed longest ago among a few used ones from a random position on.
+         */
+        private void evictOne() {
+            int index = ThreadLocalRandom.current().nextInt(mask + 1);
+            int oldest = -1;
+            final int sampleCount = Math.min(EVICTION_SAMPLES, size);
+            for (int samples = 0; samples < sampleCount; index = (index + 1) & mask) {
+                if (!isUsed(index))
+                    continue;
+
+                if (oldest < 0 || entries.getInt(index * ENTRY_BYTES + LAST_ACCESS)
+                        < entries.getInt(oldest * ENTRY_BYTES + LAST_ACCESS))
+                    oldest = index;
+                samples++;
+            }
+
+            delete(oldest);
+        }
+
+        private void delete(int index) {
+            int hole = index;
+            for (int next = (hole + 1) & mask; isUsed(next); next = (next + 1) & mask) {
+                final int offset = next * ENTRY_BYTES;
+                final int home = hash(entries.getLong(offset + ID_MOST), entries.getLong(offset + ID_LEAST)) & mask;
+                // Move the entry into the hole unless that would put it before its home index
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    copy(next, hole);
+                    hole = next;
+                }
+            }
+
+            entries.putInt(hole * ENTRY_BYTES + SETTINGS, 0);
+            size--;
+        }
+
+        private void copy(int from, int to) {
+            final int source = from * ENTRY_BYTES;
+            final int target = to * ENTRY_BYTES;
+            for (int i = 0; i < ENTRY_BYTES; i += Long.BYTES)
+                entries.putLong(target + i, entries.getLong(source + i));
+        }
+
+        private boolean isUsed(int index) {
+            return entries.getInt(index * ENTRY_BYTES + SETTINGS) != 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package db.migration;
+
+import java.sql.PreparedStatement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+public class V1_1_0__AddGameSettings extends BaseJavaMigration {
+
+    // Games without a row here are classic 3x3, three in a row
+    private static final String CREATE_TABLE_PUBLIC_GAMESETTINGS = "" +
+            "CREATE TABLE public.gamesettings("
+            + "id varchar(128) PRIMARY KEY, "
+            + "board_rows int NOT NULL, "
+            + "board_columns int NOT NULL, "
+            + "win_length int NOT NULL" +
+            ");";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (PreparedStatement statement = context.getConnection()
+                .prepareStatement(CREATE_TABLE_PUBLIC_GAMESETTINGS)) {
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package db.migration;
+
+import java.sql.PreparedStatement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+public class V1_2_0__AddGameMode extends BaseJavaMigration {
+
+    private static final String ALTER_TABLE_PUBLIC_GAMESETTINGS = "" +
+            "ALTER TABLE public.gamesettings "
+            + "ADD COLUMN mode varchar(16) NOT NULL DEFAULT 'TWO_PLAYER';";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (PreparedStatement statement = context.getConnection()
+                .prepareStatement(ALTER_TABLE_PUBLIC_GAMESETTINGS)) {
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Replaces the one-row-per-move gameinfo table and its gamesettings companion with one row per game,
+ * keyed by a native uuid and holding the board as one packed bitset per symbol.
+ * <p>
+ * The board is rebuilt and packed by {@link Game}, a copy of the engine's logic as of this version, so later
+ * changes to the engine or the game table mapping cannot change what this migration writes.
+ */
+public class V2_0_0__CompactGameTable extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Games created before board settings existed
+    private static final int DEFAULT_SIZE = 3;
+    private static final String DEFAULT_MODE = "TWO_PLAYER";
+
+    // Status codes of the game table
+    private static final int IN_PROGRESS = 0;
+    private static final int X_WON = 1;
+    private static final int O_WON = 2;
+    private static final int DRAW = 3;
+
+    private static final String CREATE_TABLE_PUBLIC_GAME = "" +
+            "CREATE TABLE public.game("
+            + "id uuid PRIMARY KEY, "
+            + "board_rows smallint NOT NULL, "
+            + "board_columns smallint NOT NULL, "
+            + "win_length smallint NOT NULL, "
+            + "mode varchar(16) NOT NULL, "
+            + "x_bits bytea NOT NULL, "
+            + "o_bits bytea NOT NULL, "
+            + "version int NOT NULL, "
+            + "status smallint NOT NULL, "
+            + "CONSTRAINT chk_status CHECK (status IN (0, 1, 2, 3))" +
+            ");";
+
+    private static final String SELECT_MOVES = "" +
+            "SELECT g.id, g.symbol, g.x, g.y, s.board_rows, s.board_columns, s.win_length, s.mode "
+            + "FROM public.gameinfo g LEFT JOIN public.gamesettings s ON s.id = g.id "
+            + "ORDER BY g.id;";
+
+    private static final String INSERT_GAME = "" +
+            "INSERT INTO public.game (id, board_rows, board_columns, win_length, mode, x_bits, o_bits, "
+            + "version, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);";
+
+    private static final String DROP_OLD_TABLES = "DROP TABLE public.gameinfo, public.gamesettings;";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        final Connection connection = context.getConnection();
+
+        try (PreparedStatement statement = connection.prepareStatement(CREATE_TABLE_PUBLIC_GAME)) {
+            statement.execute();
+        }
+
+        try (PreparedStatement select = connection.prepareStatement(SELECT_MOVES);
+                PreparedStatement insert = connection.prepareStatement(INSERT_GAME)) {
+            select.setFetchSize(BATCH_SIZE);
+
+            try (ResultSet rs = select.executeQuery()) {
+                copyGames(rs, insert);
+            }
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(DROP_OLD_TABLES)) {
+            statement.execute();
+        }
+    }
+
+    private void copyGames(ResultSet rs, PreparedStatement insert) throws Exception {
+        String currentId = null;
+        String mode = null;
+        Game game = null;
+        int batched = 0;
+
+        while (rs.next()) {
+            final String id = rs.getString("id");
+            if (!id.equals(currentId)) {
+                if (game != null) {
+                    addGame(insert, currentId, game, mode);
+                    if (++batched % BATCH_SIZE == 0)
+                        insert.executeBatch();
+                }
+
+                currentId = id;
+                final int rows = rs.getInt("board_rows");
+                if (rs.wasNull()) {
+                    game = new Game(DEFAULT_SIZE, DEFAULT_SIZE, DEFAULT_SIZE);
+                    mode = DEFAULT_MODE;
+                } else {
+                    game = new Game(rows, rs.getInt("board_columns"), rs.getInt("win_length"));
+                    mode = rs.getString("mode");
+                }
+            }
+
+            game.place(rs.getInt("x"), rs.getInt("y"), "X".equals(rs.getString("symbol")));
+        }
+
+        if (game != null) {
+            addGame(insert, currentId, game, mode);
+            insert.executeBatch();
+        }
+    }
+
+    private void addGame(PreparedStatement insert, String id, Game game, String mode) throws Exception {
+        insert.setObject(1, UUID.fromString(id));
+        insert.setInt(2, game.rows);
+        insert.setInt(3, game.columns);
+        insert.setInt(4, game.winLength);
+        insert.setString(5, mode);
+        insert.setBytes(6, game.toBytes(game.xBits));
+        insert.setBytes(7, game.toBytes(game.oBits));
+        insert.setInt(8, game.moves);
+        insert.setInt(9, game.status());
+        insert.addBatch();
+    }
+
+    /**
+     * Board of one game folded from its moves: one bitset per symbol, cell (x, y) at bit
+     * {@code x * columns + y}, and the first symbol to complete a line of {@code winLength} as the winner.
+     */
+    private static final class Game {
+
+        private static final int[][] DIRECTIONS = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+        private final int rows;
+        private final int columns;
+        private final int winLength;
+        private final long[] xBits;
+        private final long[] oBits;
+        private int moves;
+        private int winner = IN_PROGRESS;
+
+        private Game(int rows, int columns, int winLength) {
+            this.rows = rows;
+            this.columns = columns;
+            this.winLength = winLength;
+            this.xBits = new long[(rows * columns + Long.SIZE - 1) / Long.SIZE];
+            this.oBits = new long[xBits.length];
+        }
+
+        private void place(int x, int y, boolean isX) {
+            final long[] bits = isX ? xBits : oBits;
+            final int cell = x * columns + y;
+            bits[cell >>> 6] |= 1L << cell;
+            moves++;
+
+            if (winner == IN_PROGRESS && completesLine(bits, x, y))
+                winner = isX ? X_WON : O_WON;
+        }
+
+        private int status() {
+            if (winner != IN_PROGRESS)
+                return winner;
+
+            return moves == rows * columns ? DRAW : IN_PROGRESS;
+        }
+
+        /**
+         * Smallest byte array holding every cell, cell 0 in the lowest bit of byte 0.
+         */
+        private byte[] toBytes(long[] bits) {
+            final byte[] bytes = new byte[(rows * columns + Byte.SIZE - 1) / Byte.SIZE];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (bits[i >>> 3] >>> ((i & 7) << 3));
+            }
+
+            return bytes;
+        }
+
+        private boolean completesLine(long[] bits, int x, int y) {
+            for (int[] direction : DIRECTIONS) {
+                final int count = 1
+                        + countFrom(bits, x, y, direction[0], direction[1])
+                        + countFrom(bits, x, y, -direction[0], -direction[1]);
+                if (count >= winLength)
+                    return true;
+            }
+
+            return false;
+        }
+
+        private int countFrom(long[] bits, int x, int y, int dx, int dy) {
+            int count = 0;
+            int cx = x + dx;
+            int cy = y + dy;
+            while (count < winLength && cx >= 0 && cx < rows && cy >= 0 && cy < columns
+                    && (bits[(cx * columns + cy) >>> 6] & (1L << (cx * columns + cy))) != 0) {
+                count++;
+                cx += dx;
+                cy += dy;
+            }
+
+            return count;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Stamps every game with the time of its last write, and adds the archive that finished games are moved to.
+ * On PostgreSQL the archive is range partitioned by archive time, one partition per month created by the
+ * sweeper as it goes, so old months can be detached or dropped without a long delete. Other databases get a
+ * plain table with the same columns.
+ */
+public class V2_1_0__ArchiveFinishedGames extends BaseJavaMigration {
+
+    private static final String ADD_UPDATED_AT = "" +
+            "ALTER TABLE public.game "
+            + "ADD COLUMN updated_at timestamp with time zone NOT NULL DEFAULT CURRENT_TIMESTAMP;";
+
+    private static final String CREATE_INDEX_UPDATED_AT = "" +
+            "CREATE INDEX idx_game_updated_at ON public.game (updated_at);";
+
+    private static final String CREATE_TABLE_PUBLIC_GAME_ARCHIVE = "" +
+            "CREATE TABLE public.game_archive("
+            + "id uuid NOT NULL, "
+            + "board_rows smallint NOT NULL, "
+            + "board_columns smallint NOT NULL, "
+            + "win_length smallint NOT NULL, "
+            + "mode varchar(16) NOT NULL, "
+            + "x_bits bytea NOT NULL, "
+            + "o_bits bytea NOT NULL, "
+            + "version int NOT NULL, "
+            + "status smallint NOT NULL, "
+            + "updated_at timestamp with time zone NOT NULL, "
+            + "archived_at timestamp with time zone NOT NULL, "
+            // A partitioned table's key has to include the partition column
+            + "PRIMARY KEY (id, archived_at)" +
+            ")";
+
+    private static final String PARTITION_BY_ARCHIVED_AT = " PARTITION BY RANGE (archived_at);";
+
+    private static final String CREATE_DEFAULT_PARTITION = "" +
+            "CREATE TABLE public.game_archive_default PARTITION OF public.game_archive DEFAULT;";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        final Connection connection = context.getConnection();
+        final boolean partitioned = isPostgres(connection);
+
+        execute(connection, ADD_UPDATED_AT);
+        execute(connection, CREATE_INDEX_UPDATED_AT);
+        execute(connection, CREATE_TABLE_PUBLIC_GAME_ARCHIVE + (partitioned ? PARTITION_BY_ARCHIVED_AT : ";"));
+        if (partitioned)
+            execute(connection, CREATE_DEFAULT_PARTITION);
+    }
+
+    private static boolean isPostgres(Connection connection) throws Exception {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private void execute(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.execute();
+        }
+    }
+}
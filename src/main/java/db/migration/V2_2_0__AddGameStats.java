@@ -0,0 +1,51 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Adds the checkpointed game statistics, one named running total per row, and seeds the totals that can be
+ * counted from the games already stored. Opening moves cannot be told from a stored board, so they are only
+ * counted from here on.
+ */
+public class V2_2_0__AddGameStats extends BaseJavaMigration {
+
+    private static final String CREATE_TABLE_PUBLIC_GAME_STATS = "" +
+            "CREATE TABLE public.game_stats("
+            + "name varchar(32) NOT NULL PRIMARY KEY, "
+            + "total bigint NOT NULL"
+            + ");";
+
+    private static final String ALL_GAMES = ""
+            + "(SELECT status, version FROM public.game UNION ALL SELECT status, version FROM public.game_archive) g";
+
+    private static final String[] SEED = {
+            "INSERT INTO public.game_stats (name, total) SELECT 'created', COUNT(*) FROM " + ALL_GAMES + ";",
+            "INSERT INTO public.game_stats (name, total) SELECT 'x_won', COUNT(*) FROM " + ALL_GAMES
+                    + " WHERE status = 1;",
+            "INSERT INTO public.game_stats (name, total) SELECT 'o_won', COUNT(*) FROM " + ALL_GAMES
+                    + " WHERE status = 2;",
+            "INSERT INTO public.game_stats (name, total) SELECT 'draw', COUNT(*) FROM " + ALL_GAMES
+                    + " WHERE status = 3;",
+            "INSERT INTO public.game_stats (name, total) SELECT 'finished_moves', COALESCE(SUM(version), 0) FROM "
+                    + ALL_GAMES + " WHERE status <> 0;",
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        final Connection connection = context.getConnection();
+
+        execute(connection, CREATE_TABLE_PUBLIC_GAME_STATS);
+        for (String seed : SEED)
+            execute(connection, seed);
+    }
+
+    private void execute(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.execute();
+        }
+    }
+}
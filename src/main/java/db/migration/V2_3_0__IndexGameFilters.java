@@ -0,0 +1,45 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Indexes the columns the archive sweep and deletes by filter select on, in the game table and the archive.
+ * On PostgreSQL the sweep's finished games get a partial index of their own, so it does not scan the games in
+ * play; other databases find them through the updated_at index.
+ */
+public class V2_3_0__IndexGameFilters extends BaseJavaMigration {
+
+    private static final String CREATE_INDEX_GAME_FILTER = "" +
+            "CREATE INDEX idx_game_status_mode_updated_at ON public.game (status, mode, updated_at);";
+
+    private static final String CREATE_INDEX_GAME_ARCHIVE_FILTER = "" +
+            "CREATE INDEX idx_game_archive_status_mode_updated_at "
+            + "ON public.game_archive (status, mode, updated_at);";
+
+    private static final String CREATE_INDEX_GAME_FINISHED = "" +
+            "CREATE INDEX idx_game_finished_updated_at ON public.game (updated_at) WHERE status <> 0;";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        final Connection connection = context.getConnection();
+
+        execute(connection, CREATE_INDEX_GAME_FILTER);
+        execute(connection, CREATE_INDEX_GAME_ARCHIVE_FILTER);
+        if (isPostgres(connection))
+            execute(connection, CREATE_INDEX_GAME_FINISHED);
+    }
+
+    private static boolean isPostgres(Connection connection) throws Exception {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private void execute(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.challenge.tictactoe.api.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+
+public class GameWireFormatsTests {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void encodesBoardString() {
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(0, 2, "O").play(1, 2, "X");
+
+        byte[] encoded = GameWireFormats.toBoardString(GameResponse.of(id, board));
+
+        assertEquals("X.O..X...", new String(encoded, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void encodesClassicBoardInTenBytes() {
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O").play(2, 2, "X");
+
+        byte[] encoded = GameWireFormats.toBinary(GameResponse.of(id, board));
+
+        // status, rows, columns, win length, version (short), x bits (2 bytes), o bits (2 bytes)
+        assertArrayEquals(new byte[] { 0, 3, 3, 3, 0, 3, 0x01, 0x01, 0x10, 0x00 }, encoded);
+    }
+
+    @Test
+    public void encodesWinnerInStatusByte() {
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(1, 0, "O").play(0, 1, "X").play(1, 1, "O")
+                .play(0, 2, "X");
+
+        byte[] encoded = GameWireFormats.toBinary(GameResponse.of(id, board));
+
+        assertEquals(1, encoded[0]);
+        assertEquals(5, encoded[5]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.challenge.tictactoe.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.repo.JdbcGameInfoRepository;
+import com.challenge.tictactoe.repo.ReplicaRouting;
+import com.challenge.tictactoe.repo.mapper.GameStateMapper;
+import com.challenge.tictactoe.repo.mapper.IDMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Routes a real repository over two separate in-memory databases, so a read sent to the wrong one finds a
+ * different set of games.
+ */
+public class ReplicaRoutingDataSourceTests {
+
+    private final ReplicaRouting routing = new ReplicaRouting(new String[] { "replica" }, Duration.ofSeconds(5));
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReplicaRoutingDataSource dataSource;
+    private JdbcGameInfoRepository repository;
+
+    private final UUID id = UUID.randomUUID();
+
+    @BeforeEach
+    public void migrate() {
+        primary = database("primary");
+        replica = database("replica");
+        dataSource = new ReplicaRoutingDataSource(routing, primary, List.of(replica));
+        repository = new JdbcGameInfoRepository(new IDMapper(), new GameStateMapper(),
+                new NamedParameterJdbcTemplate(dataSource), new SimpleMeterRegistry(), routing);
+    }
+
+    @AfterEach
+    public void dropDatabases() {
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void writesGoToPrimaryOnly() {
+        repository.create(id, state(BitBoard.EMPTY.play(0, 0, "X")));
+
+        assertNotNull(repository.getById(id));
+        assertArrayEquals(new UUID[] { id }, repository.getAll(null, 10));
+        assertNull(routing.fromReplica(() -> repository.getById(id)));
+        assertEquals(0, routing.fromReplica(() -> repository.getAll(null, 10)).length);
+    }
+
+    @Test
+    public void replicaReadsSeeReplicatedGames() {
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X");
+        repository.create(id, state(board));
+        // Stands in for replication: the same row, written straight to the replica
+        new JdbcGameInfoRepository(new IDMapper(), new GameStateMapper(), new NamedParameterJdbcTemplate(replica),
+                new SimpleMeterRegistry(), routing).create(id, state(board.play(1, 1, "O")));
+
+        assertEquals(1, repository.getById(id).getVersion());
+        assertEquals(2, routing.fromReplica(() -> repository.getById(id)).getVersion());
+        assertArrayEquals(new UUID[] { id }, routing.fromReplica(() -> repository.getAll(null, 10)));
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource database = new DriverManagerDataSource("jdbc:h2:mem:" + name + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(database).load().migrate();
+
+        return database;
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}
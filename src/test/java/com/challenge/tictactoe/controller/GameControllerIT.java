@@ -1,13 +1,18 @@
 package com.challenge.tictactoe.controller;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
 import java.util.UUID;
 
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -17,6 +22,8 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.challenge.tictactoe.api.request.GameRequest;
+import com.challenge.tictactoe.repo.GameArchiveRepository;
+import com.challenge.tictactoe.service.GameStateCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -24,14 +31,23 @@ import com.jayway.jsonpath.JsonPath;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureMetrics
 @TestMethodOrder(OrderAnnotation.class)
 public class GameControllerIT {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private GameArchiveRepository gameArchiveRepository;
+
+    @Autowired
+    private GameStateCache gameStateCache;
+
     private static UUID id = null;
 
+    private static UUID archivedId = null;
+
     private static ObjectWriter objectWriter;
 
     @BeforeAll
@@ -110,6 +126,33 @@ public class GameControllerIT {
                 .andReturn();
     }
 
+    @Test
+    @Order(3)
+    public void givenGameURIWithLimit_whenDBHasValue_thenReturnPage() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/game").param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.length()").value(1))
+                .andReturn();
+    }
+
+    @Test
+    @Order(3)
+    public void givenGameURIWithStream_whenDBHasValue_thenReturnIds() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/game").param("stream", "true"))
+                .andExpect(MockMvcResultMatchers.request()
+                        .asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(Matchers.containsString("\"" + id + "\"\n")))
+                .andReturn();
+    }
+
     @Test
     @Order(3)
     public void givenGameAndIdURIWithGet_whenDBHasValue_thenReturnOK() throws Exception {
@@ -121,6 +164,49 @@ public class GameControllerIT {
                 .andReturn();
     }
 
+    @Test
+    @Order(3)
+    public void givenGameAndIdURIWithGet_whenETagMatches_thenReturnNotModified() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + id))
+                .andExpect(MockMvcResultMatchers.header()
+                        .string("ETag", "W/\"1\""))
+                .andExpect(MockMvcResultMatchers.header()
+                        .string("Vary", "Accept"))
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + id)
+                .header("If-None-Match", "W/\"1\""))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isNotModified())
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(""))
+                .andReturn();
+    }
+
+    @Test
+    @Order(3)
+    public void givenGameAndIdURIWithGet_whenBoardStringAccepted_thenReturnBoardString() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + id)
+                .accept("text/vnd.tictactoe.board"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers.content()
+                        .string("....X...."))
+                .andReturn();
+    }
+
+    @Test
+    @Order(3)
+    public void givenGameAndIdURIWithGet_whenBinaryAccepted_thenReturnBinary() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + id)
+                .accept("application/vnd.tictactoe.game+binary"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers.content()
+                        .bytes(new byte[] { 0, 3, 3, 3, 0, 1, 0x10, 0, 0, 0 }))
+                .andReturn();
+    }
+
     @Test
     @Order(4)
     public void givenGameAndIdURIWithPatch_whenDBHasValue_thenReturnOK() throws Exception {
@@ -274,6 +360,83 @@ public class GameControllerIT {
                 .andReturn();
     }
 
+    @Test
+    @Order(7)
+    public void givenGameEventsURI_whenGameIsFinished_thenSendBoardAndComplete() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/game/" + id + "/events"))
+                .andExpect(MockMvcResultMatchers.request()
+                        .asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(Matchers.containsString("event:game")))
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(Matchers.containsString("\"winner\":\"X\"")))
+                .andReturn();
+    }
+
+    @Test
+    @Order(7)
+    public void givenGameEventsURI_whenIDDoesNotExist_thenReturnNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + UUID.randomUUID() + "/events"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isNotFound())
+                .andReturn();
+    }
+
+    @Test
+    @Order(7)
+    public void givenBatchURIWithPost_thenReturnResultPerItem() throws Exception {
+        final String requestJson = "[{\"symbol\":\"X\",\"x\":0,\"y\":0},"
+                + "{\"id\":\"" + id + "\",\"symbol\":\"O\",\"x\":2,\"y\":1}]";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/game/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$[0].status").value(201))
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$[1].errorMessage").value("Game winner has already been decided"))
+                .andReturn();
+    }
+
+    @Test
+    @Order(8)
+    public void givenPrometheusURI_thenReturnGameMetrics() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(Matchers.containsString("game_outcomes_total{outcome=\"x_won\",} 1.0")))
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(Matchers.containsString("game_moves_rejected_total{reason=\"invalid_cell\",}")))
+                .andExpect(MockMvcResultMatchers.content()
+                        .string(Matchers.containsString("game_service_seconds_bucket{class=")))
+                .andReturn();
+    }
+
+    @Test
+    @Order(8)
+    public void givenStatsURI_thenReturnCountsSoFar() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/stats"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.created").value(Matchers.greaterThanOrEqualTo(2)))
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.wonByX").value(1))
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.averageMoves").value(5.0))
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.openings[0].games").value(Matchers.greaterThanOrEqualTo(1)))
+                .andReturn();
+    }
+
     @Test
     @Order(8)
     public void givenGameAndIdURIWithDelete_thenReturnNoContent() throws Exception {
@@ -284,6 +447,80 @@ public class GameControllerIT {
                 .andReturn();
     }
 
+    @Test
+    @Order(9)
+    public void givenFinishedGame_whenArchived_thenReadableByIdButNotListed() throws Exception {
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol("X");
+        gameRequest.setX(0);
+        gameRequest.setY(0);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/game")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(gameRequest)))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isCreated())
+                .andReturn();
+        archivedId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("$.id"));
+
+        final int[][] moves = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 0, 2 } };
+        for (int i = 0; i < moves.length; i++) {
+            gameRequest.setSymbol(i % 2 == 0 ? "O" : "X");
+            gameRequest.setX(moves[i][0]);
+            gameRequest.setY(moves[i][1]);
+            mockMvc.perform(MockMvcRequestBuilders.patch("/game/" + archivedId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectWriter.writeValueAsString(gameRequest)))
+                    .andExpect(MockMvcResultMatchers.status()
+                            .isOk());
+        }
+
+        assertTrue(gameArchiveRepository.archiveFinished(Instant.now().plusSeconds(60), Instant.now(), 1000) >= 1);
+        gameStateCache.invalidate(archivedId);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + archivedId))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.winner").value("X"))
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.get("/game"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$").value(Matchers.not(Matchers.hasItem(archivedId.toString()))))
+                .andReturn();
+    }
+
+    @Test
+    @Order(10)
+    public void givenGameURIWithDelete_whenNoFilter_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/game"))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isBadRequest())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.errorMessage").value("Invalid filter"))
+                .andReturn();
+    }
+
+    @Test
+    @Order(10)
+    public void givenGameURIWithDelete_whenFilterMatchesArchivedGame_thenDeleteIt() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/game")
+                .param("status", "X_WON")
+                .param("updatedBefore", Instant.now().plusSeconds(60).toString()))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.deleted").value(Matchers.greaterThanOrEqualTo(1)))
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/game/" + archivedId))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isNotFound())
+                .andReturn();
+    }
+
     private MvcResult executePatch(String requestJson) throws Exception {
         return mockMvc.perform(MockMvcRequestBuilders
                 .patch("/game/" + id)
@@ -0,0 +1,87 @@
+package com.challenge.tictactoe.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BitBoardTests {
+
+    @Test
+    public void emptyBoardHasNoWinner_andStartsWithX() {
+        assertNull(BitBoard.EMPTY.winner());
+        assertEquals("X", BitBoard.EMPTY.nextSymbol());
+    }
+
+    @Test
+    public void nextSymbolAlternates() {
+        BitBoard board = BitBoard.EMPTY.play(1, 1, "X");
+        assertEquals("O", board.nextSymbol());
+
+        board = board.play(0, 0, "O");
+        assertEquals("X", board.nextSymbol());
+    }
+
+    @Test
+    public void detectsEveryLine() {
+        int[][][] lines = {
+                { { 0, 0 }, { 0, 1 }, { 0, 2 } },
+                { { 1, 0 }, { 1, 1 }, { 1, 2 } },
+                { { 2, 0 }, { 2, 1 }, { 2, 2 } },
+                { { 0, 0 }, { 1, 0 }, { 2, 0 } },
+                { { 0, 1 }, { 1, 1 }, { 2, 1 } },
+                { { 0, 2 }, { 1, 2 }, { 2, 2 } },
+                { { 0, 0 }, { 1, 1 }, { 2, 2 } },
+                { { 0, 2 }, { 1, 1 }, { 2, 0 } }
+        };
+
+        for (int[][] line : lines) {
+            BitBoard board = BitBoard.EMPTY;
+            for (int[] cell : line) {
+                board = board.play(cell[0], cell[1], "O");
+            }
+            assertEquals("O", board.winner());
+        }
+    }
+
+    @Test
+    public void toMatrixMatchesCells() {
+        String[][] matrix = BitBoard.EMPTY.play(2, 1, "X").play(0, 2, "O").toMatrix();
+
+        assertEquals("X", matrix[2][1]);
+        assertEquals("O", matrix[0][2]);
+        assertNull(matrix[1][1]);
+    }
+
+    @Test
+    public void detectsFiveInARowOnLargeBoard() {
+        BitBoard board = BitBoard.empty(15, 15, 5);
+        for (int i = 0; i < 4; i++) {
+            board = board.play(10 - i, 3 + i, "X");
+        }
+        assertNull(board.winner());
+
+        board = board.play(6, 7, "X");
+        assertEquals("X", board.winner());
+    }
+
+    @Test
+    public void doesNotWrapLinesAcrossRows() {
+        BitBoard board = BitBoard.empty(4, 4, 3)
+                .play(0, 2, "X")
+                .play(0, 3, "X")
+                .play(1, 0, "X");
+
+        assertNull(board.winner());
+    }
+
+    @Test
+    public void validatesBoardSize() {
+        assertTrue(BitBoard.isValidSize(15, 15, 5));
+        assertFalse(BitBoard.isValidSize(3, 3, 4));
+        assertFalse(BitBoard.isValidSize(2, 3, 3));
+        assertFalse(BitBoard.isValidSize(33, 3, 3));
+    }
+}
@@ -0,0 +1,48 @@
+package com.challenge.tictactoe.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class PerfectPlayTableTests {
+
+    private final PerfectPlayTable table = new PerfectPlayTable();
+
+    @Test
+    public void solvesEveryReachablePosition() {
+        assertEquals(5478, table.getReachablePositions());
+    }
+
+    @Test
+    public void blocksImmediateThreat() {
+        BitBoard board = BitBoard.EMPTY
+                .play(0, 0, "X")
+                .play(1, 1, "O")
+                .play(0, 1, "X");
+
+        assertEquals(2, table.bestMove(board));
+    }
+
+    @Test
+    public void neverLosesAsO() {
+        assertNeverLoses(BitBoard.EMPTY);
+    }
+
+    private void assertNeverLoses(BitBoard board) {
+        for (int cell = 0; cell < 9; cell++) {
+            if (board.isOccupied(cell / 3, cell % 3))
+                continue;
+
+            BitBoard afterX = board.play(cell / 3, cell % 3, "X");
+            assertNotEquals("X", afterX.winner());
+            if (afterX.isFull())
+                continue;
+
+            int reply = table.bestMove(afterX);
+            BitBoard afterO = afterX.play(reply / 3, reply % 3, "O");
+            if (afterO.winner() == null && !afterO.isFull())
+                assertNeverLoses(afterO);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.challenge.tictactoe.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.management.InvalidAttributeValueException;
+import javax.naming.NameNotFoundException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.challenge.tictactoe.api.request.GameRequest;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.engine.PerfectPlayTable;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.service.GameMetrics;
+import com.challenge.tictactoe.service.GameRules;
+import com.challenge.tictactoe.service.GameStateCache;
+import com.challenge.tictactoe.service.GameStats;
+import com.challenge.tictactoe.service.GameSubscriptions;
+import com.challenge.tictactoe.service.LruGameStateCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveGameServiceTests {
+
+    @InjectMocks
+    private ReactiveGameService gameService;
+
+    private ReactiveGameRepository gameRepository = mock(ReactiveGameRepository.class);
+
+    private GameMetrics gameMetrics = spy(new GameMetrics(new SimpleMeterRegistry()));
+
+    private GameRules gameRules = spy(new GameRules(new PerfectPlayTable(), gameMetrics));
+
+    private GameStateCache gameStateCache = spy(new LruGameStateCache(100, Duration.ofMinutes(1)));
+
+    private GameSubscriptions gameSubscriptions = spy(
+            new GameSubscriptions(new ObjectMapper(), Runnable::run, 64));
+
+    private GameStats gameStats = spy(new GameStats(Optional.empty(), Duration.ofSeconds(10)));
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void canCreateGame() {
+        when(gameRepository.create(any(UUID.class), any(GameState.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameService.createGame(request("X", 0, 0)))
+                .assertNext(created -> {
+                    assertEquals("O", created.getNextSymbol());
+                    assertEquals("X", created.getGameMatrix()[0][0]);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void createGameFails_whenInvalidSymbol() {
+        StepVerifier.create(gameService.createGame(request("O", 0, 0)))
+                .verifyError(InvalidAttributeValueException.class);
+
+        verify(gameRepository, never()).create(any(UUID.class), any(GameState.class));
+    }
+
+    @Test
+    public void getByIdFails_whenInvalidId() {
+        when(gameRepository.getById(id)).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameService.getById(id))
+                .verifyError(NameNotFoundException.class);
+    }
+
+    @Test
+    public void canPlayTurn() {
+        when(gameRepository.getById(id)).thenReturn(Mono.just(state(BitBoard.EMPTY.play(0, 0, "X"))));
+        when(gameRepository.update(eq(id), any(GameState.class), eq(1))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(gameService.playTurn(id, request("O", 1, 1)))
+                .assertNext(played -> assertEquals("O", played.getGameMatrix()[1][1]))
+                .verifyComplete();
+    }
+
+    @Test
+    public void playTurnFails_whenVersionChanged() {
+        when(gameRepository.getById(id)).thenReturn(Mono.just(state(BitBoard.EMPTY.play(0, 0, "X"))));
+        when(gameRepository.update(eq(id), any(GameState.class), eq(1))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(gameService.playTurn(id, request("O", 1, 1)))
+                .verifyError(GameConflictException.class);
+
+        assertNull(gameStateCache.get(id));
+    }
+
+    private GameRequest request(String symbol, int x, int y) {
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol(symbol);
+        gameRequest.setX(x);
+        gameRequest.setY(y);
+
+        return gameRequest;
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}
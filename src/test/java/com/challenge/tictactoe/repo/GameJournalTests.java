@@ -0,0 +1,110 @@
+package com.challenge.tictactoe.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+
+public class GameJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void recoversUpToTornRecord_andTruncatesIt() throws IOException {
+        BitBoard second = BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O");
+        Path segment = journal(new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X")), GameWrite.NEW_GAME),
+                new GameWrite(id, state(second), 1));
+        long intact = Files.size(segment);
+        try (GameJournal journal = new GameJournal(directory)) {
+            journal.append(new GameWrite(id, state(second.play(2, 2, "X")), 2));
+        }
+        // The crash cut the last record short
+        Path torn = directory.resolve(segment.getFileName().toString().replace("1.log", "2.log"));
+        try (FileChannel file = FileChannel.open(torn, StandardOpenOption.WRITE)) {
+            file.truncate(Files.size(torn) - 5);
+        }
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            List<GameWrite> recovered = journal.recover();
+
+            assertEquals(2, recovered.size());
+            assertEquals(2, recovered.get(1).getState().getVersion());
+            assertEquals(intact, Files.size(segment));
+            assertEquals(0, Files.size(torn));
+        }
+    }
+
+    @Test
+    public void stopsAtZeroFilledTail() throws IOException {
+        Path segment = journal(new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X")), GameWrite.NEW_GAME));
+        long intact = Files.size(segment);
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            file.write(ByteBuffer.allocate(4096));
+        }
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            List<GameWrite> recovered = journal.recover();
+
+            assertEquals(1, recovered.size());
+            assertTrue(recovered.get(0).isNewGame());
+            assertEquals(intact, Files.size(segment));
+        }
+    }
+
+    @Test
+    public void stopsAtCorruptedRecord() throws IOException {
+        Path segment = journal(new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X")), GameWrite.NEW_GAME),
+                new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O")), 1));
+        // Both records have the same length
+        long first = Files.size(segment) / 2;
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            file.write(ByteBuffer.wrap(new byte[] { 0x55 }), Files.size(segment) - 1);
+        }
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            List<GameWrite> recovered = journal.recover();
+
+            assertEquals(1, recovered.size());
+            assertEquals(first, Files.size(segment));
+        }
+    }
+
+    /**
+     * Writes the records to a journal that is closed again, as after a crash.
+     *
+     * @return the segment holding them
+     */
+    private Path journal(GameWrite... writes) throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            for (GameWrite write : writes) {
+                journal.append(write);
+            }
+        }
+
+        try (var segments = Files.list(directory)) {
+            return segments.findFirst().orElseThrow();
+        }
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}
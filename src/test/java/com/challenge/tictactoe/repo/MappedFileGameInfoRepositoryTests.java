@@ -0,0 +1,129 @@
+package com.challenge.tictactoe.repo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+
+public class MappedFileGameInfoRepositoryTests {
+
+    @TempDir
+    Path directory;
+
+    private final UUID id = UUID.randomUUID();
+
+    private MappedFileGameInfoRepository repository;
+
+    @AfterEach
+    public void close() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        repository = open(10);
+        BitBoard board = BitBoard.empty(5, 4, 3).play(4, 3, "X");
+
+        repository.create(id, new GameState(board, GameMode.SINGLE_PLAYER));
+        GameState read = repository.getById(id);
+
+        assertEquals(5, read.getBoard().getRows());
+        assertEquals(4, read.getBoard().getColumns());
+        assertEquals(3, read.getBoard().getWinLength());
+        assertEquals(GameMode.SINGLE_PLAYER, read.getMode());
+        assertArrayEquals(board.getXBits(), read.getBoard().getXBits());
+        assertNull(repository.getById(UUID.randomUUID()));
+    }
+
+    @Test
+    public void rejectsUpdate_whenVersionChangedOrGameOver() throws IOException {
+        repository = open(10);
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(1, 0, "O").play(0, 1, "X").play(1, 1, "O");
+        repository.create(id, state(board));
+
+        assertFalse(repository.update(id, state(board.play(0, 2, "X")), 3));
+        assertTrue(repository.update(id, state(board.play(0, 2, "X")), 4));
+        assertFalse(repository.update(id, state(board.play(0, 2, "X").play(2, 2, "O")), 5));
+        assertEquals("X", repository.getById(id).getBoard().winner());
+    }
+
+    @Test
+    public void keepsGames_whenReopened() throws IOException {
+        repository = open(10);
+        repository.create(id, state(BitBoard.EMPTY.play(0, 0, "X")));
+        repository.update(id, state(BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O")), 1);
+        repository.close();
+
+        repository = open(10);
+
+        assertEquals(2, repository.getById(id).getVersion());
+    }
+
+    @Test
+    public void replaysJournal_whenFileMissedChanges() throws IOException {
+        repository = open(10);
+        repository.create(id, state(BitBoard.EMPTY.play(0, 0, "X")));
+        repository.close();
+        UUID deleted = UUID.randomUUID();
+        try (GameJournal journal = new GameJournal(directory.resolve("journal"))) {
+            journal.append(new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O")), 1));
+            journal.append(new GameWrite(deleted, state(BitBoard.EMPTY.play(2, 2, "X")), GameWrite.NEW_GAME));
+            journal.appendDelete(deleted);
+        }
+
+        repository = open(10);
+
+        assertEquals(2, repository.getById(id).getVersion());
+        assertNull(repository.getById(deleted));
+        try (var segments = Files.list(directory.resolve("journal"))) {
+            assertEquals(1, segments.count());
+        }
+    }
+
+    @Test
+    public void listsIdsInOrder_andReusesDeletedSlots() throws IOException {
+        repository = open(3);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(UUID.randomUUID());
+            repository.create(ids.get(i), state(BitBoard.EMPTY.play(0, 0, "X")));
+        }
+        ids.sort(null);
+
+        assertArrayEquals(ids.subList(1, 3).toArray(), repository.getAll(ids.get(0), 10));
+        assertThrows(IllegalStateException.class,
+                () -> repository.create(UUID.randomUUID(), state(BitBoard.EMPTY.play(0, 0, "X"))));
+
+        repository.deleteById(ids.get(1));
+        repository.create(id, state(BitBoard.EMPTY.play(0, 0, "X")));
+
+        assertEquals(Set.of(ids.get(0), ids.get(2), id), Set.of(repository.getAll(null, 10)));
+    }
+
+    private MappedFileGameInfoRepository open(int maxGames) throws IOException {
+        return new MappedFileGameInfoRepository(directory.toString(), maxGames, 2);
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}
@@ -0,0 +1,79 @@
+package com.challenge.tictactoe.repo;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.config.ReplicaRoutingDataSource;
+
+public class ReplicaRoutingTests {
+
+    private final ReplicaRouting routing = new ReplicaRouting(new String[] { "a", "b" }, Duration.ofSeconds(5));
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void sendsMarkedReadsToReplicasInTurn() throws SQLException {
+        ReplicaRoutingDataSource dataSource = dataSource();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(firstReplicaConnection, routing.fromReplica(dataSource::getConnection));
+        assertSame(secondReplicaConnection, routing.fromReplica(dataSource::getConnection));
+        assertSame(firstReplicaConnection, routing.fromReplica(dataSource::getConnection));
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void pinsWrittenGame() {
+        routing.pin(id);
+
+        assertTrue(routing.isPinned(id));
+        assertFalse(routing.isPinned(UUID.randomUUID()));
+    }
+
+    @Test
+    public void releasesPin_afterPinDuration() {
+        ReplicaRouting shortPins = new ReplicaRouting(new String[] { "a" }, Duration.ZERO);
+
+        shortPins.pin(id);
+
+        assertFalse(shortPins.isPinned(id));
+    }
+
+    @Test
+    public void readsFromPrimary_whenNoReplicas() {
+        ReplicaRouting noReplicas = new ReplicaRouting(new String[0], Duration.ofSeconds(5));
+
+        assertFalse(noReplicas.fromReplica(noReplicas::isReplicaRead));
+        noReplicas.pin(id);
+        assertFalse(noReplicas.isPinned(id));
+    }
+
+    private ReplicaRoutingDataSource dataSource() throws SQLException {
+        return new ReplicaRoutingDataSource(routing, pool(primaryConnection),
+                List.of(pool(firstReplicaConnection), pool(secondReplicaConnection)));
+    }
+
+    private static DataSource pool(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        return dataSource;
+    }
+}
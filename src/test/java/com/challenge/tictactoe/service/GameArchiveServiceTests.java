@@ -0,0 +1,102 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameFilter;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameStatus;
+import com.challenge.tictactoe.repo.GameArchiveRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class GameArchiveServiceTests {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final GameArchiveRepository gameArchiveRepository = mock(GameArchiveRepository.class);
+
+    private final GameStateCache gameStateCache = new LruGameStateCache(100, Duration.ofMinutes(1));
+
+    private final GameWriteBehind gameWriteBehind = mock(GameWriteBehind.class);
+
+    private final GameArchiveService gameArchiveService = new GameArchiveService(gameArchiveRepository,
+            gameStateCache, new GameSubscriptions(new ObjectMapper(), Runnable::run, 64),
+            new GameStats(Optional.empty(), Duration.ofSeconds(10)), gameWriteBehind, Duration.ofHours(1),
+            Duration.ofDays(7), 2, 3, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    public void archivesInBatches_untilOneComesBackShort() {
+        when(gameArchiveRepository.archiveFinished(any(Instant.class), any(Instant.class), anyInt()))
+                .thenReturn(2, 1);
+
+        assertEquals(3, gameArchiveService.archiveFinished());
+
+        verify(gameArchiveRepository).createArchivePartition(YearMonth.of(2026, 10));
+        verify(gameArchiveRepository, times(2)).archiveFinished(NOW.minus(Duration.ofHours(1)), NOW, 2);
+    }
+
+    @Test
+    public void stopsArchiving_afterMaxBatches() {
+        when(gameArchiveRepository.archiveFinished(any(Instant.class), any(Instant.class), anyInt())).thenReturn(2);
+
+        assertEquals(6, gameArchiveService.archiveFinished());
+        gameArchiveService.archiveFinished();
+
+        verify(gameArchiveRepository, times(6)).archiveFinished(any(Instant.class), any(Instant.class), anyInt());
+        verify(gameArchiveRepository, times(1)).createArchivePartition(any(YearMonth.class));
+    }
+
+    @Test
+    public void expiresOnlyUnfinishedGames_idleForTheTtl() {
+        UUID id = UUID.randomUUID();
+        gameStateCache.put(id, new GameState(BitBoard.EMPTY.play(0, 0, "X"), GameMode.TWO_PLAYER));
+        when(gameArchiveRepository.deleteMatching(any(GameFilter.class), anyInt()))
+                .thenReturn(List.of(id))
+                .thenReturn(List.of());
+
+        assertEquals(1, gameArchiveService.expireAbandoned());
+
+        // Queued writes are committed first, so none can bring a deleted game back
+        InOrder order = inOrder(gameWriteBehind, gameArchiveRepository);
+        order.verify(gameWriteBehind).flush();
+        order.verify(gameArchiveRepository).deleteMatching(any(GameFilter.class), anyInt());
+        verify(gameArchiveRepository, times(1)).deleteMatching(argThat(filter ->
+                filter.getStatus() == GameStatus.IN_PROGRESS
+                        && filter.getUpdatedBefore().equals(NOW.minus(Duration.ofDays(7)))), eq(2));
+        assertNull(gameStateCache.get(id));
+    }
+
+    @Test
+    public void deleteMatchingFails_whenFilterIsEmpty() {
+        assertThrows(InvalidAttributeValueException.class, () -> gameArchiveService.deleteMatching(new GameFilter()));
+
+        verify(gameArchiveRepository, never()).deleteMatching(any(GameFilter.class), anyInt());
+    }
+}
@@ -0,0 +1,164 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.management.InvalidAttributeValueException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.challenge.tictactoe.api.request.BatchItemRequest;
+import com.challenge.tictactoe.api.response.BatchItemResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.engine.PerfectPlayTable;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+import com.challenge.tictactoe.repo.GameInfoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class GameBatchServiceTests {
+
+    @InjectMocks
+    private GameBatchService gameBatchService;
+
+    private GameInfoRepository gameInfoRepository = mock(GameInfoRepository.class);
+
+    private GameMetrics gameMetrics = spy(new GameMetrics(new SimpleMeterRegistry()));
+
+    private GameRules gameRules = spy(new GameRules(new PerfectPlayTable(), gameMetrics));
+
+    private GameStateCache gameStateCache = spy(new LruGameStateCache(100, Duration.ofMinutes(1)));
+
+    private GameShards gameShards = spy(new GameShards(0, 0, new GameLocks(16)));
+
+    private GameSubscriptions gameSubscriptions = spy(
+            new GameSubscriptions(new ObjectMapper(), Runnable::run, 64));
+
+    private GameStats gameStats = spy(new GameStats(Optional.empty(), Duration.ofSeconds(10)));
+
+    private GameWriteBehind gameWriteBehind = spy(new GameWriteBehind(gameInfoRepository, gameStateCache,
+            gameStats, new SimpleMeterRegistry(), false, GameWriteBehind.Durability.FLUSH, 10, 500, 10000, 5, ""));
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canCreateAndPlayInOneBatch() throws InvalidAttributeValueException {
+        when(gameInfoRepository.getByIds(any()))
+                .thenReturn(Map.of(id, new GameState(BitBoard.EMPTY.play(0, 0, "X"), GameMode.TWO_PLAYER)));
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Set.of());
+
+        List<BatchItemResponse> results = gameBatchService.play(List.of(
+                item(null, "X", 1, 1),
+                item(id, "O", 1, 1),
+                item(id, "X", 2, 2),
+                item(id, "X", 0, 1)));
+
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(200, results.get(2).getStatus());
+        assertEquals(400, results.get(3).getStatus());
+        assertEquals("Invalid symbol", results.get(3).getErrorMessage());
+
+        ArgumentCaptor<List<GameWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(gameInfoRepository).writeAll(writes.capture());
+        assertEquals(2, writes.getValue().size());
+
+        GameWrite update = writes.getValue().get(1);
+        assertEquals(id, update.getId());
+        assertEquals(1, update.getExpectedVersion());
+        assertEquals(3, update.getState().getVersion());
+    }
+
+    @Test
+    public void reportsMissingGames() throws InvalidAttributeValueException {
+        when(gameInfoRepository.getByIds(any())).thenReturn(Map.of());
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Set.of());
+
+        List<BatchItemResponse> results = gameBatchService.play(List.of(item(id, "X", 0, 0)));
+
+        assertEquals(404, results.get(0).getStatus());
+    }
+
+    @Test
+    public void reportsConflicts() throws InvalidAttributeValueException {
+        when(gameInfoRepository.getByIds(any()))
+                .thenReturn(Map.of(id, new GameState(BitBoard.EMPTY.play(0, 0, "X"), GameMode.TWO_PLAYER)));
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Set.of(id));
+
+        List<BatchItemResponse> results = gameBatchService.play(List.of(item(id, "O", 1, 1)));
+
+        assertEquals(409, results.get(0).getStatus());
+        assertNull(results.get(0).getGame());
+        assertNull(gameStateCache.get(id));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void playsOnQueuedMove_withWriteBehind() throws Exception {
+        GameWriteBehind writeBehind = new GameWriteBehind(gameInfoRepository, gameStateCache,
+                gameStats, new SimpleMeterRegistry(), true, GameWriteBehind.Durability.ENQUEUE, 60_000, 500, 10000, 5,
+                "");
+        writeBehind.start();
+        GameBatchService service = new GameBatchService(gameInfoRepository, gameRules, gameStateCache, gameShards,
+                gameSubscriptions, gameMetrics, writeBehind, gameStats);
+        try {
+            BitBoard stored = BitBoard.EMPTY.play(0, 0, "X");
+            when(gameInfoRepository.getByIds(any())).thenReturn(Map.of());
+            when(gameInfoRepository.writeAll(anyList())).thenReturn(Set.of());
+            gameStateCache.put(id, new GameState(stored, GameMode.TWO_PLAYER));
+            writeBehind.submit(new GameWrite(id, new GameState(stored.play(1, 1, "O"), GameMode.TWO_PLAYER), 1));
+
+            List<BatchItemResponse> results = service.play(List.of(item(id, "X", 2, 2)));
+            writeBehind.flush();
+
+            assertEquals(200, results.get(0).getStatus());
+            assertEquals("O", results.get(0).getGame().getGameMatrix()[1][1]);
+            // The batch move is queued behind the move it was played on and both reach the database as one write
+            ArgumentCaptor<List<GameWrite>> writes = ArgumentCaptor.forClass(List.class);
+            verify(gameInfoRepository).writeAll(writes.capture());
+            assertEquals(1, writes.getValue().size());
+            assertEquals(1, writes.getValue().get(0).getExpectedVersion());
+            assertEquals(3, writes.getValue().get(0).getState().getVersion());
+        } finally {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsEmptyBatch() {
+        assertThrows(InvalidAttributeValueException.class, () -> gameBatchService.play(List.of()));
+    }
+
+    private BatchItemRequest item(UUID gameId, String symbol, int x, int y) {
+        BatchItemRequest item = new BatchItemRequest();
+        item.setId(gameId);
+        item.setSymbol(symbol);
+        item.setX(x);
+        item.setY(y);
+
+        return item;
+    }
+}
@@ -0,0 +1,39 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GameMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final GameMetrics gameMetrics = new GameMetrics(registry);
+
+    @Test
+    public void countsOnlyFinishedGames() {
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(1, 0, "O").play(0, 1, "X").play(1, 1, "O");
+
+        gameMetrics.recordCommitted(new GameState(board, GameMode.TWO_PLAYER));
+        gameMetrics.recordCommitted(new GameState(board.play(0, 2, "X"), GameMode.TWO_PLAYER));
+
+        assertEquals(1, registry.get("game.outcomes").tag("outcome", "x_won").counter().count());
+        assertEquals(0, registry.get("game.outcomes").tag("outcome", "in_progress").counter().count());
+    }
+
+    @Test
+    public void countsRejectionsByReason() {
+        gameMetrics.recordRejected("invalid_symbol");
+        gameMetrics.recordRejected("invalid_symbol");
+        gameMetrics.recordRejected("game_over");
+
+        assertEquals(2, registry.get("game.moves.rejected").tag("reason", "invalid_symbol").counter().count());
+        assertEquals(1, registry.get("game.moves.rejected").tag("reason", "game_over").counter().count());
+    }
+}
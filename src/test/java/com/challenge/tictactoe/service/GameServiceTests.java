@@ -1,28 +1,60 @@
 package com.challenge.tictactoe.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.management.InvalidAttributeValueException;
 import javax.naming.NameNotFoundException;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessResourceException;
 
 import com.challenge.tictactoe.api.request.GameRequest;
 import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.engine.PerfectPlayTable;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.exception.InvalidMoveException;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
 import com.challenge.tictactoe.repo.GameInfoRepository;
-import com.challenge.tictactoe.repo.entity.GameInfo;
+import com.challenge.tictactoe.repo.ReplicaRouting;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 public class GameServiceTests {
@@ -32,6 +64,24 @@ public class GameServiceTests {
 
     private GameInfoRepository gameInfoRepository = mock(GameInfoRepository.class);
 
+    private GameMetrics gameMetrics = spy(new GameMetrics(new SimpleMeterRegistry()));
+
+    private GameRules gameRules = spy(new GameRules(new PerfectPlayTable(), gameMetrics));
+
+    private GameStateCache gameStateCache = spy(new LruGameStateCache(100, Duration.ofMinutes(1)));
+
+    private GameShards gameShards = spy(new GameShards(0, 0, new GameLocks(16)));
+
+    private GameSubscriptions gameSubscriptions = spy(
+            new GameSubscriptions(new ObjectMapper(), Runnable::run, 64));
+
+    private GameStats gameStats = spy(new GameStats(Optional.empty(), Duration.ofSeconds(10)));
+
+    private GameWriteBehind gameWriteBehind = spy(new GameWriteBehind(gameInfoRepository, gameStateCache,
+            gameStats, new SimpleMeterRegistry(), false, GameWriteBehind.Durability.FLUSH, 10, 500, 10000, 5, ""));
+
+    private ReplicaRouting replicaRouting = spy(new ReplicaRouting(new String[0], Duration.ofSeconds(5)));
+
     private final UUID id = UUID.randomUUID();
 
     @Test
@@ -41,14 +91,6 @@ public class GameServiceTests {
         gameRequest.setX(0);
         gameRequest.setY(0);
 
-        GameInfo gameInfo = new GameInfo();
-        gameInfo.setId(id.toString());
-        gameInfo.setSymbol("X");
-        gameInfo.setX(0);
-        gameInfo.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenReturn(new GameInfo[] { gameInfo });
-
         GameResponse created = gameService.createGame(gameRequest);
 
         assertNull(created.getWinner());
@@ -56,40 +98,114 @@ public class GameServiceTests {
         assertEquals(3, created.getGameMatrix().length);
         assertEquals(3, created.getGameMatrix()[0].length);
         assertEquals("O", created.getNextSymbol());
+        verify(gameInfoRepository).create(any(UUID.class), any(GameState.class));
     }
 
     @Test
-    public void canGetAllWhenEmpty() {
-        when(gameInfoRepository.getAll()).thenReturn(new UUID[0]);
-        assertEquals(0, gameService.getAll().length);
+    public void canCreateGame_withCustomBoardSize() throws InvalidAttributeValueException {
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol("X");
+        gameRequest.setX(14);
+        gameRequest.setY(14);
+        gameRequest.setRows(15);
+        gameRequest.setColumns(15);
+        gameRequest.setWinLength(5);
+
+        GameResponse created = gameService.createGame(gameRequest);
+
+        assertEquals(15, created.getGameMatrix().length);
+        assertEquals(15, created.getGameMatrix()[0].length);
+        assertEquals("X", created.getGameMatrix()[14][14]);
+    }
+
+    @Test
+    public void createGameThrowException_whenInvalidBoardSize() {
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol("X");
+        gameRequest.setRows(3);
+        gameRequest.setColumns(3);
+        gameRequest.setWinLength(4);
+
+        InvalidAttributeValueException thrown = assertThrows(
+                InvalidAttributeValueException.class,
+                () -> gameService.createGame(gameRequest));
+
+        assertTrue(thrown.getMessage().contains("Invalid board size"));
+    }
+
+    @Test
+    public void canCreateGame_whenSinglePlayerRepliesWithO() throws InvalidAttributeValueException {
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol("X");
+        gameRequest.setX(1);
+        gameRequest.setY(1);
+        gameRequest.setMode(GameMode.SINGLE_PLAYER);
+
+        GameResponse created = gameService.createGame(gameRequest);
+
+        ArgumentCaptor<GameState> stored = ArgumentCaptor.forClass(GameState.class);
+        verify(gameInfoRepository).create(any(UUID.class), stored.capture());
+        assertEquals("X", created.getNextSymbol());
+        assertEquals(2, stored.getValue().getVersion());
+        assertEquals(GameMode.SINGLE_PLAYER, stored.getValue().getMode());
+    }
+
+    @Test
+    public void createGameThrowException_whenSinglePlayerOnLargeBoard() {
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol("X");
+        gameRequest.setRows(15);
+        gameRequest.setColumns(15);
+        gameRequest.setWinLength(5);
+        gameRequest.setMode(GameMode.SINGLE_PLAYER);
+
+        InvalidAttributeValueException thrown = assertThrows(
+                InvalidAttributeValueException.class,
+                () -> gameService.createGame(gameRequest));
+
+        assertTrue(thrown.getMessage().contains("Invalid game mode"));
+    }
+
+    @Test
+    public void canGetAllWhenEmpty() throws InvalidAttributeValueException {
+        when(gameInfoRepository.getAll(null, 100)).thenReturn(new UUID[0]);
+        assertEquals(0, gameService.getAll(null, 100).length);
     }
 
     @Test
     public void canGetAll_whenPresent() throws InvalidAttributeValueException, NameNotFoundException {
-        when(gameInfoRepository.getAll()).thenReturn(new UUID[] { id });
+        when(gameInfoRepository.getAll(null, 100)).thenReturn(new UUID[] { id });
 
-        UUID[] gameList = gameService.getAll();
+        UUID[] gameList = gameService.getAll(null, 100);
 
         assertEquals(1, gameList.length);
         assertEquals(id, gameList[0]);
     }
 
+    @Test
+    public void canGetAll_afterCursor() throws InvalidAttributeValueException {
+        UUID next = UUID.randomUUID();
+        when(gameInfoRepository.getAll(id, 1)).thenReturn(new UUID[] { next });
+
+        assertEquals(next, gameService.getAll(id, 1)[0]);
+    }
+
+    @Test
+    public void getAllThrowException_whenLimitIsTooLarge() {
+        assertThrows(InvalidAttributeValueException.class,
+                () -> gameService.getAll(null, GameService.MAX_PAGE_SIZE + 1));
+    }
+
     @Test
     public void getByIdThrowException_whenInvalidId() throws NameNotFoundException {
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[0]);
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(null);
 
         assertThrows(NameNotFoundException.class, () -> gameService.getById(UUID.randomUUID()));
     }
 
     @Test
     public void canGetById_whenNoWinnerIsPresent() throws NameNotFoundException {
-        GameInfo gameInfo = new GameInfo();
-        gameInfo.setId(id.toString());
-        gameInfo.setSymbol("X");
-        gameInfo.setX(0);
-        gameInfo.setY(0);
-
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[] { gameInfo });
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
 
         GameResponse game = gameService.getById(id);
 
@@ -100,26 +216,11 @@ public class GameServiceTests {
 
     @Test
     public void canGetById_whenWinnerIsPresent() throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo1 = new GameInfo();
-        gameInfo1.setId(id.toString());
-        gameInfo1.setSymbol("X");
-        gameInfo1.setX(0);
-        gameInfo1.setY(0);
-
-        GameInfo gameInfo2 = new GameInfo();
-        gameInfo2.setId(id.toString());
-        gameInfo2.setSymbol("X");
-        gameInfo2.setX(1);
-        gameInfo2.setY(1);
-
-        GameInfo gameInfo3 = new GameInfo();
-        gameInfo3.setId(id.toString());
-        gameInfo3.setSymbol("X");
-        gameInfo3.setX(2);
-        gameInfo3.setY(2);
-
-        when(gameInfoRepository.getById(any(UUID.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2, gameInfo3 });
+        BitBoard board = BitBoard.EMPTY
+                .play(0, 0, "X")
+                .play(1, 1, "X")
+                .play(2, 2, "X");
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(board));
 
         GameResponse game = gameService.getById(id);
 
@@ -128,30 +229,70 @@ public class GameServiceTests {
         assertNull(game.getNextSymbol());
     }
 
+    @Test
+    public void getById_whenCached_thenDoesNotQueryRepository() throws NameNotFoundException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
+
+        gameService.getById(id);
+        GameResponse game = gameService.getById(id);
+
+        assertEquals("O", game.getNextSymbol());
+        verify(gameInfoRepository, times(1)).getById(id);
+        assertEquals(1, gameStateCache.getHits());
+        assertEquals(1, gameStateCache.getMisses());
+    }
+
+    @Test
+    public void getById_readsFromReplicaWithoutCaching_unlessWrittenRecently() throws NameNotFoundException {
+        doReturn(true).when(replicaRouting).isEnabled();
+        List<Boolean> replicaReads = new ArrayList<>();
+        when(gameInfoRepository.getById(id)).thenAnswer(invocation -> {
+            replicaReads.add(replicaRouting.isReplicaRead());
+            return state(BitBoard.EMPTY.play(0, 0, "X"));
+        });
+
+        gameService.getById(id);
+        assertNull(gameStateCache.get(id));
+        replicaRouting.pin(id);
+        gameService.getById(id);
+        gameService.getById(id);
+
+        assertEquals(List.of(true, false), replicaReads);
+        assertNotNull(gameStateCache.get(id));
+        assertFalse(replicaRouting.isReplicaRead());
+    }
+
+    @Test
+    public void getById_readsFromPrimary_whenReplicaLacksGame() throws NameNotFoundException {
+        doReturn(true).when(replicaRouting).isEnabled();
+        List<Boolean> replicaReads = new ArrayList<>();
+        when(gameInfoRepository.getById(id)).thenAnswer(invocation -> {
+            replicaReads.add(replicaRouting.isReplicaRead());
+            return replicaRouting.isReplicaRead() ? null : state(BitBoard.EMPTY.play(0, 0, "X"));
+        });
+
+        GameResponse game = gameService.getById(id);
+
+        assertEquals("X", game.getGameMatrix()[0][0]);
+        assertEquals(List.of(true, false), replicaReads);
+    }
+
     @Test
     public void playTurnThrowException_whenInvalidId() throws NameNotFoundException {
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[0]);
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(null);
 
         assertThrows(NameNotFoundException.class, () -> gameService.playTurn(UUID.randomUUID(), new GameRequest()));
     }
 
     @Test
     public void playTurnThrowException_whenInvalidSymbol()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo = new GameInfo();
-        gameInfo.setId(id.toString());
-        gameInfo.setSymbol("X");
-        gameInfo.setX(0);
-        gameInfo.setY(0);
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[] { gameInfo });
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("Y");
         gameRequest.setX(0);
         gameRequest.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenThrow(new InvalidAttributeValueException(
-                        "Invalid request"));
 
         InvalidAttributeValueException thrown = assertThrows(
                 InvalidAttributeValueException.class,
@@ -162,21 +303,13 @@ public class GameServiceTests {
 
     @Test
     public void playTurnThrowException_whenRepeatedPlayer()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo = new GameInfo();
-        gameInfo.setId(id.toString());
-        gameInfo.setSymbol("X");
-        gameInfo.setX(0);
-        gameInfo.setY(2);
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[] { gameInfo });
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 2, "X")));
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("X");
         gameRequest.setX(0);
         gameRequest.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenThrow(new InvalidAttributeValueException(
-                        "Invalid request"));
 
         InvalidAttributeValueException thrown = assertThrows(
                 InvalidAttributeValueException.class,
@@ -187,159 +320,137 @@ public class GameServiceTests {
 
     @Test
     public void playTurnThrowException_whenRepeatedCoordinates()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo = new GameInfo();
-        gameInfo.setId(id.toString());
-        gameInfo.setSymbol("X");
-        gameInfo.setX(0);
-        gameInfo.setY(0);
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[] { gameInfo });
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("O");
         gameRequest.setX(0);
         gameRequest.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenThrow(new InvalidAttributeValueException(
-                        "Invalid request"));
 
         InvalidAttributeValueException thrown = assertThrows(
                 InvalidAttributeValueException.class,
                 () -> gameService.playTurn(id, gameRequest));
 
         assertTrue(thrown.getMessage().contains("Invalid request"));
+        verify(gameInfoRepository, never()).update(any(UUID.class), any(GameState.class), anyInt());
     }
 
     @Test
-    public void canPlayTurn_whenNoWinnerIsPresent() throws InvalidAttributeValueException, NameNotFoundException {
+    public void playTurnRejectsWithSharedStacklessError_whenOutOfBounds()
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
 
-        GameInfo gameInfo = new GameInfo();
-        gameInfo.setId(id.toString());
-        gameInfo.setSymbol("X");
-        gameInfo.setX(0);
-        gameInfo.setY(0);
-        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(new GameInfo[] { gameInfo });
+        GameRequest gameRequest = new GameRequest();
+        gameRequest.setSymbol("O");
+        gameRequest.setX(3);
+        gameRequest.setY(-1);
+
+        InvalidAttributeValueException first = assertThrows(
+                InvalidAttributeValueException.class,
+                () -> gameService.playTurn(id, gameRequest));
+        InvalidAttributeValueException second = assertThrows(
+                InvalidAttributeValueException.class,
+                () -> gameService.playTurn(id, gameRequest));
+
+        assertSame(InvalidMoveException.INVALID_CELL, first);
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        verify(gameInfoRepository, never()).update(any(UUID.class), any(GameState.class), anyInt());
+    }
+
+    @Test
+    public void playTurnThrowException_whenVersionChanged()
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
+        when(gameInfoRepository.update(eq(id), any(GameState.class), eq(1))).thenReturn(false);
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("O");
         gameRequest.setX(1);
         gameRequest.setY(1);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenReturn(new GameInfo[] { gameInfo });
-
-        GameResponse game = gameService.playTurn(id, gameRequest);
 
-        assertEquals(id, game.getId());
-        assertNull(game.getWinner());
-        assertNotNull(game.getNextSymbol());
+        assertThrows(GameConflictException.class, () -> gameService.playTurn(id, gameRequest));
+        assertNull(gameStateCache.get(id));
     }
 
     @Test
-    public void canPlayTurn_whenHorizontalWinnerIsPresent()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo1 = new GameInfo();
-        gameInfo1.setId(id.toString());
-        gameInfo1.setSymbol("X");
-        gameInfo1.setX(0);
-        gameInfo1.setY(0);
-
-        GameInfo gameInfo2 = new GameInfo();
-        gameInfo2.setId(id.toString());
-        gameInfo2.setSymbol("X");
-        gameInfo2.setX(1);
-        gameInfo2.setY(0);
-
-        GameInfo gameInfo3 = new GameInfo();
-        gameInfo3.setId(id.toString());
-        gameInfo3.setSymbol("X");
-        gameInfo3.setX(2);
-        gameInfo3.setY(0);
-
-        when(gameInfoRepository.getById(any(UUID.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2 });
+    public void canPlayTurn_whenNoWinnerIsPresent() throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
+        when(gameInfoRepository.update(eq(id), any(GameState.class), eq(1))).thenReturn(true);
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("O");
-        gameRequest.setX(2);
-        gameRequest.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2, gameInfo3 });
+        gameRequest.setX(1);
+        gameRequest.setY(1);
 
         GameResponse game = gameService.playTurn(id, gameRequest);
 
         assertEquals(id, game.getId());
-        assertNotNull(game.getWinner());
-        assertNull(game.getNextSymbol());
+        assertNull(game.getWinner());
+        assertNotNull(game.getNextSymbol());
     }
 
     @Test
-    public void canPlayTurn_whenVerticalWinnerIsPresent()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo1 = new GameInfo();
-        gameInfo1.setId(id.toString());
-        gameInfo1.setSymbol("X");
-        gameInfo1.setX(0);
-        gameInfo1.setY(0);
-
-        GameInfo gameInfo2 = new GameInfo();
-        gameInfo2.setId(id.toString());
-        gameInfo2.setSymbol("X");
-        gameInfo2.setX(0);
-        gameInfo2.setY(1);
-
-        GameInfo gameInfo3 = new GameInfo();
-        gameInfo3.setId(id.toString());
-        gameInfo3.setSymbol("X");
-        gameInfo3.setX(0);
-        gameInfo3.setY(2);
-
-        when(gameInfoRepository.getById(any(UUID.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2 });
+    public void playTurn_pushesBoardToSubscribers()
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
+        when(gameInfoRepository.update(eq(id), any(GameState.class), eq(1))).thenReturn(true);
+        GameSubscriptions.Listener listener = mock(GameSubscriptions.Listener.class);
+        gameService.subscribe(id, listener);
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("O");
-        gameRequest.setX(2);
-        gameRequest.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2, gameInfo3 });
+        gameRequest.setX(1);
+        gameRequest.setY(1);
 
-        GameResponse game = gameService.playTurn(id, gameRequest);
+        gameService.playTurn(id, gameRequest);
 
-        assertEquals(id, game.getId());
-        assertNotNull(game.getWinner());
-        assertNull(game.getNextSymbol());
+        verify(listener, times(2)).onUpdate(any(String.class));
+        verify(listener, never()).onClose();
+    }
+
+    @Test
+    public void canPlayTurn_whenHorizontalWinnerIsPresent()
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        assertWinnerAfter(new int[][] { { 0, 0 }, { 1, 0 }, { 2, 0 } });
+    }
+
+    @Test
+    public void canPlayTurn_whenVerticalWinnerIsPresent()
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        assertWinnerAfter(new int[][] { { 0, 0 }, { 0, 1 }, { 0, 2 } });
     }
 
     @Test
     public void canPlayTurn_whenDiagonalTopLeftWinnerIsPresent()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo1 = new GameInfo();
-        gameInfo1.setId(id.toString());
-        gameInfo1.setSymbol("X");
-        gameInfo1.setX(0);
-        gameInfo1.setY(0);
-
-        GameInfo gameInfo2 = new GameInfo();
-        gameInfo2.setId(id.toString());
-        gameInfo2.setSymbol("X");
-        gameInfo2.setX(1);
-        gameInfo2.setY(1);
-
-        GameInfo gameInfo3 = new GameInfo();
-        gameInfo3.setId(id.toString());
-        gameInfo3.setSymbol("X");
-        gameInfo3.setX(2);
-        gameInfo3.setY(2);
-
-        when(gameInfoRepository.getById(any(UUID.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2 });
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        assertWinnerAfter(new int[][] { { 0, 0 }, { 1, 1 }, { 2, 2 } });
+    }
+
+    @Test
+    public void canPlayTurn_whenDiagonalTopRightWinnerIsPresent()
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        assertWinnerAfter(new int[][] { { 2, 0 }, { 1, 1 }, { 0, 2 } });
+    }
+
+    /**
+     * X holds the first two cells of the line with O elsewhere, then X completes it.
+     */
+    private void assertWinnerAfter(int[][] line)
+            throws InvalidAttributeValueException, NameNotFoundException, GameConflictException {
+        BitBoard board = BitBoard.EMPTY.play(line[0][0], line[0][1], "X");
+        board = playO(board, line);
+        board = board.play(line[1][0], line[1][1], "X");
+        board = playO(board, line);
+
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(board));
+        when(gameInfoRepository.update(eq(id), any(GameState.class), eq(4))).thenReturn(true);
 
         GameRequest gameRequest = new GameRequest();
-        gameRequest.setSymbol("O");
-        gameRequest.setX(2);
-        gameRequest.setY(0);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2, gameInfo3 });
+        gameRequest.setSymbol("X");
+        gameRequest.setX(line[2][0]);
+        gameRequest.setY(line[2][1]);
 
         GameResponse game = gameService.playTurn(id, gameRequest);
 
@@ -349,40 +460,91 @@ public class GameServiceTests {
     }
 
     @Test
-    public void canPlayTurn_whenDiagonalTopRightWinnerIsPresent()
-            throws InvalidAttributeValueException, NameNotFoundException {
-        GameInfo gameInfo1 = new GameInfo();
-        gameInfo1.setId(id.toString());
-        gameInfo1.setSymbol("X");
-        gameInfo1.setX(2);
-        gameInfo1.setY(0);
-
-        GameInfo gameInfo2 = new GameInfo();
-        gameInfo2.setId(id.toString());
-        gameInfo2.setSymbol("X");
-        gameInfo2.setX(1);
-        gameInfo2.setY(1);
-
-        GameInfo gameInfo3 = new GameInfo();
-        gameInfo3.setId(id.toString());
-        gameInfo3.setSymbol("X");
-        gameInfo3.setX(0);
-        gameInfo3.setY(2);
-
-        when(gameInfoRepository.getById(any(UUID.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2 });
+    public void playTurn_whenQueuedWriteFails_thenMoveIsNotSeen() throws NameNotFoundException {
+        when(gameInfoRepository.getById(any(UUID.class))).thenReturn(state(BitBoard.EMPTY.play(0, 0, "X")));
+        doReturn(true).when(gameWriteBehind).isEnabled();
+        doReturn(CompletableFuture.failedFuture(new GameConflictException()))
+                .when(gameWriteBehind).submit(any(GameWrite.class));
 
         GameRequest gameRequest = new GameRequest();
         gameRequest.setSymbol("O");
         gameRequest.setX(1);
-        gameRequest.setY(2);
-        when(gameInfoRepository.playTurn(any(UUID.class), any(GameRequest.class)))
-                .thenReturn(new GameInfo[] { gameInfo1, gameInfo2, gameInfo3 });
+        gameRequest.setY(1);
 
-        GameResponse game = gameService.playTurn(id, gameRequest);
+        assertThrows(GameConflictException.class, () -> gameService.playTurn(id, gameRequest));
 
-        assertEquals(id, game.getId());
-        assertNotNull(game.getWinner());
-        assertNull(game.getNextSymbol());
+        assertNull(gameStateCache.get(id));
+        verify(gameSubscriptions, never()).publish(any(UUID.class), any(GameResponse.class));
+        verify(gameStats, never()).recordCommitted(any(GameState.class));
+    }
+
+    @Test
+    public void deleteById_waitsForRetryOfFailedQueuedCreate() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch failing = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        when(gameInfoRepository.writeAll(anyList())).thenAnswer(invocation -> {
+            if (!failed.compareAndSet(false, true))
+                return Set.of();
+
+            flushing.countDown();
+            failing.await();
+            throw new TransientDataAccessResourceException("connection lost");
+        });
+        GameWriteBehind writeBehind = new GameWriteBehind(gameInfoRepository, gameStateCache,
+                gameStats, new SimpleMeterRegistry(), true, GameWriteBehind.Durability.ENQUEUE, 1, 500, 10000, 5, "");
+        writeBehind.start();
+        GameService service = new GameService(gameInfoRepository, gameRules, gameStateCache, gameShards,
+                gameSubscriptions, gameMetrics, writeBehind, gameStats, replicaRouting);
+        try {
+            GameRequest gameRequest = new GameRequest();
+            gameRequest.setSymbol("X");
+            gameRequest.setX(0);
+            gameRequest.setY(0);
+            UUID created = service.createGame(gameRequest).getId();
+            flushing.await();
+
+            // The delete waits for the batch holding the create, which fails once and goes back in the queue
+            CompletableFuture<Void> deleted = CompletableFuture.runAsync(() -> {
+                try {
+                    service.deleteById(created);
+                } catch (NameNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(50);
+            failing.countDown();
+            deleted.join();
+
+            InOrder order = inOrder(gameInfoRepository);
+            order.verify(gameInfoRepository, times(2)).writeAll(anyList());
+            order.verify(gameInfoRepository).deleteById(created);
+        } finally {
+            writeBehind.shutdown();
+        }
+    }
+
+    private BitBoard playO(BitBoard board, int[][] line) {
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (!board.isOccupied(x, y) && !isOnLine(line, x, y))
+                    return board.play(x, y, "O");
+            }
+        }
+
+        throw new IllegalStateException();
+    }
+
+    private boolean isOnLine(int[][] line, int x, int y) {
+        for (int[] cell : line) {
+            if (cell[0] == x && cell[1] == y)
+                return true;
+        }
+
+        return false;
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
     }
 }
@@ -0,0 +1,99 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.naming.NameNotFoundException;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.exception.GameBusyException;
+
+public class GameShardsTests {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void runsCommandsForSameGameOnSameThread() {
+        GameShards shards = new GameShards(4, 16, new GameLocks(16));
+
+        String first = shards.execute(id, () -> Thread.currentThread().getName());
+        String second = shards.execute(id, () -> Thread.currentThread().getName());
+
+        assertEquals("game-shard-" + shards.shardOf(id), first);
+        assertEquals(first, second);
+        shards.shutdown();
+    }
+
+    @Test
+    public void rethrowsCommandException() {
+        GameShards shards = new GameShards(2, 16, new GameLocks(16));
+
+        assertThrows(NameNotFoundException.class, () -> shards.execute(id, () -> {
+            throw new NameNotFoundException();
+        }));
+        shards.shutdown();
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull() throws InterruptedException {
+        GameShards shards = new GameShards(1, 1, new GameLocks(16));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        callers.submit(() -> shards.execute(id, () -> {
+            running.countDown();
+            release.await();
+            return null;
+        }));
+        running.await();
+        callers.submit(() -> shards.execute(id, () -> null));
+        while (shards.getQueueDepth(0) == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(GameBusyException.class, () -> shards.execute(id, () -> null));
+        assertEquals(1, shards.getRejections());
+
+        release.countDown();
+        callers.shutdown();
+        shards.shutdown();
+    }
+
+    @Test
+    public void keepsInterruptFlag_whenInterruptedWhileWaiting() throws InterruptedException {
+        GameShards shards = new GameShards(1, 16, new GameLocks(16));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        callers.submit(() -> shards.execute(id, () -> {
+            running.countDown();
+            release.await();
+            return null;
+        }));
+        running.await();
+
+        Thread.currentThread().interrupt();
+        assertThrows(IllegalStateException.class, () -> shards.execute(id, () -> ran.getAndSet(true)));
+        assertTrue(Thread.interrupted());
+
+        release.countDown();
+        // Runs after the interrupted command's turn, which was cancelled
+        shards.execute(id, () -> null);
+        assertFalse(ran.get());
+
+        callers.shutdown();
+        shards.shutdown();
+    }
+}
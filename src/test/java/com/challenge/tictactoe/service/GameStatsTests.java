@@ -0,0 +1,101 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.challenge.tictactoe.api.response.GameStatsResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.repo.GameStatsRepository;
+
+public class GameStatsTests {
+
+    private final GameStatsRepository gameStatsRepository = mock(GameStatsRepository.class);
+
+    @Test
+    public void countsOutcomesAndOpenings() {
+        GameStats gameStats = new GameStats(Optional.empty(), Duration.ofSeconds(10));
+        BitBoard won = BitBoard.EMPTY.play(1, 1, "X").play(0, 0, "O").play(0, 1, "X").play(0, 2, "O")
+                .play(2, 1, "X");
+
+        gameStats.recordCreated(state(BitBoard.EMPTY.play(1, 1, "X")));
+        gameStats.recordCreated(state(BitBoard.EMPTY.play(1, 1, "X")));
+        gameStats.recordCreated(state(BitBoard.empty(4, 4, 3).play(3, 2, "X")));
+        gameStats.recordCommitted(state(won));
+        gameStats.recordAbandoned(1);
+        GameStatsResponse stats = gameStats.getStats();
+
+        assertEquals(3, stats.getCreated());
+        assertEquals(1, stats.getInProgress());
+        assertEquals(1, stats.getWonByX());
+        assertEquals(1, stats.getAbandoned());
+        assertEquals(5.0, stats.getAverageMoves());
+        assertEquals(2, stats.getOpenings().size());
+        assertEquals(1, stats.getOpenings().get(0).getX());
+        assertEquals(1, stats.getOpenings().get(0).getY());
+        assertEquals(2, stats.getOpenings().get(0).getGames());
+        assertEquals(3, stats.getOpenings().get(1).getX());
+        assertEquals(2, stats.getOpenings().get(1).getY());
+    }
+
+    @Test
+    public void addsOnlyNewCountsToSharedTotals() {
+        when(gameStatsRepository.getAll())
+                .thenReturn(Map.of("created", 10L))
+                .thenReturn(Map.of("created", 12L))
+                .thenReturn(Map.of("created", 20L));
+        GameStats gameStats = new GameStats(Optional.of(gameStatsRepository), Duration.ofHours(1));
+        gameStats.start();
+        assertEquals(10, gameStats.getStats().getCreated());
+
+        gameStats.recordCreated(state(BitBoard.EMPTY.play(0, 0, "X")));
+        gameStats.recordCreated(state(BitBoard.EMPTY.play(0, 0, "X")));
+        gameStats.checkpoint();
+        gameStats.recordCreated(state(BitBoard.EMPTY.play(0, 0, "X")));
+
+        verify(gameStatsRepository).add(Map.of("created", 2L, "opening_0_0", 2L));
+        assertEquals(13, gameStats.getStats().getCreated());
+
+        // Another node added 7 meanwhile
+        gameStats.checkpoint();
+
+        verify(gameStatsRepository).add(Map.of("created", 1L, "opening_0_0", 1L));
+        assertEquals(20, gameStats.getStats().getCreated());
+        gameStats.shutdown();
+    }
+
+    @Test
+    public void addsCountsOnce_whenReadingTotalsBackFails() {
+        when(gameStatsRepository.getAll())
+                .thenReturn(Map.of())
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(Map.of("created", 1L, "opening_0_0", 1L));
+        GameStats gameStats = new GameStats(Optional.of(gameStatsRepository), Duration.ofHours(1));
+        gameStats.start();
+
+        gameStats.recordCreated(state(BitBoard.EMPTY.play(0, 0, "X")));
+        assertThrows(DataAccessResourceFailureException.class, gameStats::checkpoint);
+        assertEquals(1, gameStats.getStats().getCreated());
+        gameStats.checkpoint();
+
+        verify(gameStatsRepository).add(Map.of("created", 1L, "opening_0_0", 1L));
+        verify(gameStatsRepository).add(Map.of());
+        assertEquals(1, gameStats.getStats().getCreated());
+        gameStats.shutdown();
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}
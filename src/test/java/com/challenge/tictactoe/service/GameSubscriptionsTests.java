@@ -0,0 +1,114 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.api.response.GameResponse;
+import com.challenge.tictactoe.engine.BitBoard;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class GameSubscriptionsTests {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+
+    private final GameSubscriptions subscriptions = new GameSubscriptions(objectMapper, Runnable::run, 64);
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void serializesEachMoveOnceForAllSubscribers() throws JsonProcessingException {
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X");
+        List<RecordingListener> listeners = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RecordingListener listener = new RecordingListener();
+            subscriptions.subscribe(id, GameResponse.of(id, board), listener);
+            listeners.add(listener);
+        }
+        clearInvocations(objectMapper);
+
+        subscriptions.publish(id, GameResponse.of(id, board.play(1, 1, "O")));
+
+        verify(objectMapper, times(1)).writeValueAsString(any());
+        String sent = listeners.get(0).updates.get(1);
+        for (RecordingListener listener : listeners) {
+            assertEquals(2, listener.updates.size());
+            assertSame(sent, listener.updates.get(1));
+        }
+    }
+
+    @Test
+    public void closesSubscribers_whenGameIsWon() {
+        RecordingListener listener = new RecordingListener();
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(1, 0, "O").play(0, 1, "X").play(1, 1, "O");
+        subscriptions.subscribe(id, GameResponse.of(id, board), listener);
+
+        subscriptions.publish(id, GameResponse.of(id, board.play(0, 2, "X")));
+
+        assertTrue(listener.closed);
+        assertEquals(0, subscriptions.getSubscriberCount(id));
+    }
+
+    @Test
+    public void stopsUpdates_afterUnsubscribe() {
+        RecordingListener listener = new RecordingListener();
+        Runnable unsubscribe = subscriptions.subscribe(id, GameResponse.of(id, BitBoard.EMPTY), listener);
+
+        unsubscribe.run();
+        subscriptions.publish(id, GameResponse.of(id, BitBoard.EMPTY.play(0, 0, "X")));
+
+        assertEquals(1, listener.updates.size());
+        assertEquals(0, subscriptions.getSubscriberCount(id));
+    }
+
+    @Test
+    public void deliversOnExecutor_skippingOldestUpdates_whenSubscriberLags() {
+        List<Runnable> deliveries = new ArrayList<>();
+        GameSubscriptions lagging = new GameSubscriptions(objectMapper, deliveries::add, 2);
+        RecordingListener listener = new RecordingListener();
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X");
+        lagging.subscribe(id, GameResponse.of(id, BitBoard.EMPTY), listener);
+
+        lagging.publish(id, GameResponse.of(id, board));
+        lagging.publish(id, GameResponse.of(id, board.play(1, 1, "O")));
+        lagging.close(id);
+
+        assertTrue(listener.updates.isEmpty());
+        assertEquals(1, deliveries.size());
+
+        deliveries.get(0).run();
+
+        assertEquals(2, listener.updates.size());
+        assertTrue(listener.updates.get(0).contains("\"nextSymbol\":\"O\""));
+        assertTrue(listener.updates.get(1).contains("\"nextSymbol\":\"X\""));
+        assertTrue(listener.closed);
+    }
+
+    private static final class RecordingListener implements GameSubscriptions.Listener {
+
+        private final List<String> updates = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void onUpdate(String gameJson) {
+            updates.add(gameJson);
+        }
+
+        @Override
+        public void onClose() {
+            closed = true;
+        }
+    }
+}
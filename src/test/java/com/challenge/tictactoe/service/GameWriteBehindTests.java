@@ -0,0 +1,260 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.exception.GameBusyException;
+import com.challenge.tictactoe.exception.GameConflictException;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+import com.challenge.tictactoe.model.GameWrite;
+import com.challenge.tictactoe.repo.GameInfoRepository;
+import com.challenge.tictactoe.repo.GameJournal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GameWriteBehindTests {
+
+    // Long enough that only flush() or the batch size ever starts a flush
+    private static final long NEVER = 60_000;
+
+    private final GameInfoRepository gameInfoRepository = mock(GameInfoRepository.class);
+
+    private final GameStateCache gameStateCache = new LruGameStateCache(100, Duration.ofMinutes(1));
+
+    private final GameStats gameStats = spy(new GameStats(Optional.empty(), Duration.ofSeconds(10)));
+
+    private final UUID id = UUID.randomUUID();
+
+    private GameWriteBehind writeBehind;
+
+    @AfterEach
+    public void shutdown() throws Exception {
+        if (writeBehind != null)
+            writeBehind.shutdown();
+    }
+
+    @Test
+    public void collapsesWritesToOneGameIntoOneCreate() throws IOException {
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Collections.emptySet());
+        writeBehind = start(GameWriteBehind.Durability.ENQUEUE, "");
+
+        BitBoard first = BitBoard.EMPTY.play(0, 0, "X");
+        BitBoard last = first.play(1, 1, "O").play(2, 2, "X");
+        assertTrue(writeBehind.submit(new GameWrite(id, state(first), GameWrite.NEW_GAME)).isDone());
+        writeBehind.submit(new GameWrite(id, state(first.play(1, 1, "O")), 1));
+        writeBehind.submit(new GameWrite(id, state(last), 2));
+        assertEquals(last, writeBehind.getPending(id).getBoard());
+
+        writeBehind.flush();
+
+        GameWrite written = captureWrites().get(0);
+        assertTrue(written.isNewGame());
+        assertEquals(last, written.getState().getBoard());
+        assertNull(writeBehind.getPending(id));
+    }
+
+    @Test
+    public void failsWrite_whenGameChangedBeforeFlush() throws IOException {
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Set.of(id));
+        writeBehind = start(GameWriteBehind.Durability.FLUSH, "");
+        gameStateCache.put(id, state(BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O")));
+
+        CompletableFuture<Void> written = writeBehind
+                .submit(new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X").play(1, 1, "O")), 1));
+        writeBehind.flush();
+
+        CompletionException e = assertThrows(CompletionException.class, written::join);
+        assertInstanceOf(GameConflictException.class, e.getCause());
+        assertNull(gameStateCache.get(id));
+        assertEquals(1, writeBehind.getConflicts());
+    }
+
+    @Test
+    public void countsFinishedGame_onlyOnceCommitted() throws IOException {
+        UUID other = UUID.randomUUID();
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Set.of(id));
+        writeBehind = start(GameWriteBehind.Durability.ENQUEUE, "");
+        BitBoard board = BitBoard.EMPTY.play(0, 0, "X").play(1, 0, "O").play(0, 1, "X").play(1, 1, "O");
+        GameState conflicting = state(board.play(0, 2, "X"));
+        GameState committed = state(board.play(2, 2, "X").play(1, 2, "O"));
+
+        writeBehind.submit(new GameWrite(id, conflicting, 4));
+        writeBehind.submit(new GameWrite(other, committed, 5));
+        verify(gameStats, never()).recordCommitted(any(GameState.class));
+        writeBehind.flush();
+
+        verify(gameStats).recordCommitted(committed);
+        verify(gameStats, never()).recordCommitted(conflicting);
+    }
+
+    @Test
+    public void rejectsWrites_whenQueueIsFull() throws IOException {
+        writeBehind = start(GameWriteBehind.Durability.ENQUEUE, NEVER, 2, 5, "");
+
+        writeBehind.submit(new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X")), GameWrite.NEW_GAME));
+        writeBehind.submit(new GameWrite(UUID.randomUUID(), state(BitBoard.EMPTY.play(0, 0, "X")),
+                GameWrite.NEW_GAME));
+
+        assertThrows(GameBusyException.class, () -> writeBehind.submit(
+                new GameWrite(UUID.randomUUID(), state(BitBoard.EMPTY.play(0, 0, "X")), GameWrite.NEW_GAME)));
+        assertEquals(1, writeBehind.getRejections());
+    }
+
+    @Test
+    public void dropsOnlyFailingWrite_afterRetries() throws Exception {
+        UUID bad = UUID.randomUUID();
+        when(gameInfoRepository.writeAll(anyList())).thenAnswer(invocation -> {
+            List<GameWrite> writes = invocation.getArgument(0);
+            if (writes.stream().anyMatch(write -> write.getId().equals(bad)))
+                throw new DataIntegrityViolationException("constraint violated");
+            return Collections.emptySet();
+        });
+        writeBehind = start(GameWriteBehind.Durability.ENQUEUE, 1, 10000, 2, "");
+
+        GameWrite good = new GameWrite(id, state(BitBoard.EMPTY.play(0, 0, "X")), GameWrite.NEW_GAME);
+        writeBehind.submit(new GameWrite(bad, state(BitBoard.EMPTY.play(1, 1, "X")), GameWrite.NEW_GAME));
+        writeBehind.submit(good);
+        for (int i = 0; i < 500 && (writeBehind.getDropped() == 0 || writeBehind.getPending(bad) != null); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, writeBehind.getDropped());
+        assertEquals(0, writeBehind.getPendingWrites());
+        assertNull(writeBehind.getPending(bad));
+        verify(gameInfoRepository).writeAll(List.of(good));
+    }
+
+    @Test
+    public void replaysJournal_whenStartedAfterCrash(@TempDir Path journalDirectory) throws IOException {
+        BitBoard first = BitBoard.EMPTY.play(0, 0, "X");
+        BitBoard last = first.play(1, 1, "O");
+        try (GameJournal journal = new GameJournal(journalDirectory)) {
+            journal.append(new GameWrite(id, state(first), GameWrite.NEW_GAME));
+            journal.append(new GameWrite(id, state(last), 1));
+        }
+        when(gameInfoRepository.getByIds(anyCollection())).thenReturn(Collections.emptyMap());
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Collections.emptySet());
+
+        writeBehind = start(GameWriteBehind.Durability.FLUSH, journalDirectory.toString());
+
+        GameWrite written = captureWrites().get(0);
+        assertTrue(written.isNewGame());
+        assertArrayEquals(last.getXBits(), written.getState().getBoard().getXBits());
+        assertArrayEquals(last.getOBits(), written.getState().getBoard().getOBits());
+        try (Stream<Path> segments = Files.list(journalDirectory)) {
+            // only the segment the restarted journal writes to is left
+            assertEquals(1, segments.count());
+        }
+    }
+
+    @Test
+    public void skipsJournaledWrite_whenDatabaseIsAhead(@TempDir Path journalDirectory) throws IOException {
+        BitBoard first = BitBoard.EMPTY.play(0, 0, "X");
+        try (GameJournal journal = new GameJournal(journalDirectory)) {
+            journal.append(new GameWrite(id, state(first), GameWrite.NEW_GAME));
+        }
+        when(gameInfoRepository.getByIds(anyCollection())).thenReturn(Map.of(id, state(first.play(1, 1, "O"))));
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Collections.emptySet());
+
+        writeBehind = start(GameWriteBehind.Durability.FLUSH, journalDirectory.toString());
+
+        assertEquals(0, captureWrites().size());
+    }
+
+    @Test
+    public void replaysJournaledMove_atJournaledVersion(@TempDir Path journalDirectory) throws IOException {
+        BitBoard first = BitBoard.EMPTY.play(0, 0, "X");
+        BitBoard second = first.play(1, 1, "O");
+        try (GameJournal journal = new GameJournal(journalDirectory)) {
+            journal.append(new GameWrite(id, state(first), GameWrite.NEW_GAME));
+            journal.append(new GameWrite(id, state(second), 1));
+            journal.append(new GameWrite(id, state(second.play(2, 2, "X")), 2));
+        }
+        when(gameInfoRepository.getByIds(anyCollection())).thenReturn(Map.of(id, state(second)));
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Collections.emptySet());
+
+        writeBehind = start(GameWriteBehind.Durability.FLUSH, journalDirectory.toString());
+
+        GameWrite written = captureWrites().get(0);
+        assertEquals(2, written.getExpectedVersion());
+        assertEquals(3, written.getState().getVersion());
+        assertEquals(0, writeBehind.getConflicts());
+    }
+
+    @Test
+    public void dropsJournaledMove_whenGameChangedElsewhere(@TempDir Path journalDirectory) throws IOException {
+        BitBoard first = BitBoard.EMPTY.play(0, 0, "X");
+        try (GameJournal journal = new GameJournal(journalDirectory)) {
+            journal.append(new GameWrite(id, state(first.play(1, 1, "O")), 1));
+        }
+        when(gameInfoRepository.getByIds(anyCollection())).thenReturn(Map.of(id, state(first.play(2, 2, "O"))));
+        when(gameInfoRepository.writeAll(anyList())).thenReturn(Collections.emptySet());
+
+        writeBehind = start(GameWriteBehind.Durability.FLUSH, journalDirectory.toString());
+
+        assertEquals(0, captureWrites().size());
+        assertEquals(1, writeBehind.getConflicts());
+    }
+
+    private GameWriteBehind start(GameWriteBehind.Durability durability, String journalDirectory)
+            throws IOException {
+        return start(durability, NEVER, 10000, 5, journalDirectory);
+    }
+
+    private GameWriteBehind start(GameWriteBehind.Durability durability, long flushIntervalMs, int maxPending,
+            int maxRetries, String journalDirectory) throws IOException {
+        GameWriteBehind started = new GameWriteBehind(gameInfoRepository, gameStateCache,
+                gameStats, new SimpleMeterRegistry(), true, durability, flushIntervalMs, 1000, maxPending, maxRetries,
+                journalDirectory);
+        started.start();
+
+        return started;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GameWrite> captureWrites() {
+        ArgumentCaptor<List<GameWrite>> captor = ArgumentCaptor.forClass(List.class);
+        verify(gameInfoRepository, times(1)).writeAll(captor.capture());
+
+        return captor.getValue();
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}
@@ -0,0 +1,65 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+
+public class LruGameStateCacheTests {
+
+    private final GameState state = new GameState(BitBoard.EMPTY, GameMode.TWO_PLAYER);
+
+    @Test
+    public void countsHitsAndMisses() {
+        LruGameStateCache cache = new LruGameStateCache(100, Duration.ofMinutes(1));
+        UUID id = UUID.randomUUID();
+
+        assertNull(cache.get(id));
+        cache.put(id, state);
+        assertNotNull(cache.get(id));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void evictsWhenFull() {
+        LruGameStateCache cache = new LruGameStateCache(16, Duration.ofMinutes(1));
+        for (int i = 0; i < 1000; i++) {
+            cache.put(UUID.randomUUID(), state);
+        }
+
+        assertTrue(cache.size() <= 16);
+        assertEquals(1000 - cache.size(), cache.getEvictions());
+    }
+
+    @Test
+    public void missesExpiredEntry() {
+        LruGameStateCache cache = new LruGameStateCache(100, Duration.ZERO);
+        UUID id = UUID.randomUUID();
+        cache.put(id, state);
+
+        assertNull(cache.get(id));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void invalidateRemovesEntry() {
+        LruGameStateCache cache = new LruGameStateCache(100, Duration.ofMinutes(1));
+        UUID id = UUID.randomUUID();
+        cache.put(id, state);
+
+        cache.invalidate(id);
+
+        assertNull(cache.get(id));
+    }
+}
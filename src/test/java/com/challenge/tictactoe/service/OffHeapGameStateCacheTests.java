@@ -0,0 +1,160 @@
+package com.challenge.tictactoe.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.challenge.tictactoe.engine.BitBoard;
+import com.challenge.tictactoe.model.GameMode;
+import com.challenge.tictactoe.model.GameState;
+
+public class OffHeapGameStateCacheTests {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void decodesWhatWasStored() {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(100, 10, Duration.ofMinutes(1));
+        BitBoard board = BitBoard.empty(4, 5, 3).play(0, 0, "X").play(3, 4, "O").play(0, 1, "X")
+                .play(3, 3, "O").play(0, 2, "X");
+        cache.put(id, new GameState(board, GameMode.SINGLE_PLAYER));
+
+        GameState cached = cache.get(id);
+
+        assertEquals(4, cached.getBoard().getRows());
+        assertEquals(5, cached.getBoard().getColumns());
+        assertEquals(3, cached.getBoard().getWinLength());
+        assertEquals("X", cached.getBoard().winner());
+        assertEquals(GameMode.SINGLE_PLAYER, cached.getMode());
+        assertEquals(5, cached.getVersion());
+        assertArrayEquals(board.getOBits(), cached.getBoard().getOBits());
+    }
+
+    @Test
+    public void missesExpiredEntries() {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(100, 10, Duration.ZERO);
+        UUID large = UUID.randomUUID();
+        cache.put(id, state(BitBoard.EMPTY));
+        cache.put(large, state(BitBoard.empty(9, 9, 5)));
+
+        assertNull(cache.get(id));
+        assertNull(cache.get(large));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(100, 10, Duration.ofMinutes(1));
+
+        assertNull(cache.get(id));
+        cache.put(id, state(BitBoard.EMPTY));
+        assertNotNull(cache.get(id));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void keepsOtherEntries_whenOneIsRemoved() {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(10_000, 10, Duration.ofMinutes(1));
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add(UUID.randomUUID());
+            cache.put(ids.get(i), state(BitBoard.EMPTY.play(i % 3, 0, "X")));
+        }
+
+        for (int i = 0; i < ids.size(); i += 2) {
+            cache.invalidate(ids.get(i));
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            GameState cached = cache.get(ids.get(i));
+            if (i % 2 == 0)
+                assertNull(cached);
+            else
+                assertTrue(cached.getBoard().isOccupied(i % 3, 0));
+        }
+        assertEquals(2500, cache.size());
+    }
+
+    @Test
+    public void evictsWhenFull() {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(64, 10, Duration.ofMinutes(1));
+        for (int i = 0; i < 1000; i++) {
+            cache.put(UUID.randomUUID(), state(BitBoard.EMPTY));
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(1000 - cache.size(), cache.getEvictions());
+    }
+
+    @Test
+    public void keepsLargeBoardsOnHeap() {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(100, 10, Duration.ofMinutes(1));
+        GameState large = state(BitBoard.empty(9, 9, 5).play(8, 8, "X"));
+
+        cache.put(id, large);
+
+        assertSame(large, cache.get(id));
+        cache.invalidate(id);
+        assertNull(cache.get(id));
+    }
+
+    @Test
+    public void readsLastWrittenStates_whileOtherGamesAreWritten() throws Exception {
+        OffHeapGameStateCache cache = new OffHeapGameStateCache(100_000, 10, Duration.ofMinutes(1));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                workers.add(executor.submit(() -> {
+                    // Only this worker writes its games, whatever the others do to the same stripes
+                    Map<UUID, Integer> written = new HashMap<>();
+                    for (int i = 0; i < 200; i++) {
+                        written.put(UUID.randomUUID(), null);
+                    }
+                    for (int round = 1; round < 50; round++) {
+                        for (UUID game : written.keySet()) {
+                            GameState cached = cache.get(game);
+                            assertEquals(written.get(game), cached == null ? null : cached.getVersion());
+
+                            BitBoard board = round % 2 == 0 ? BitBoard.EMPTY.play(0, 0, "X") : BitBoard.EMPTY;
+                            if (round % 7 == 0) {
+                                cache.invalidate(game);
+                                written.put(game, null);
+                            } else {
+                                cache.put(game, state(board));
+                                written.put(game, board.getMoveCount());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private GameState state(BitBoard board) {
+        return new GameState(board, GameMode.TWO_PLAYER);
+    }
+}